@@ -0,0 +1,95 @@
+// Load test for the recipe api, run with k6 (https://k6.io):
+//   k6 run -e BASE_URL=http://localhost:8080 -e DURATION=60 -e LEVELS=50,200,1000,3000 load-test/recipe-api.js
+// Run it once against the default thread per request mode and once with the virtual-threads profile, and compare
+// the latency percentiles, the failed requests and the rate limited requests of each concurrency level in the summary.
+// Every virtual user signs in as its own user, so the per user rate limit does not throttle the test. Start both modes
+// with a raised shared limit, e.g. --recipe.app.rateLimitPerEndpointClass=1000000, to measure the server, not the limit.
+import http from 'k6/http';
+import { check } from 'k6';
+import { Counter } from 'k6/metrics';
+
+const BASE_URL = __ENV.BASE_URL || 'http://localhost:8080';
+const DURATION = Number(__ENV.DURATION || 60);
+const LEVELS = (__ENV.LEVELS || '50,200,1000,3000').split(',').map(Number);
+const RECIPES = 200;
+const JSON_HEADERS = { 'Content-Type': 'application/json' };
+
+// 429 responses are admission control, not server failures, so they are counted on their own
+const rateLimited = new Counter('rate_limited');
+http.setResponseCallback(http.expectedStatuses({ min: 200, max: 399 }, 429));
+
+const scenarios = {};
+const thresholds = { http_req_failed: ['rate<0.01'] };
+LEVELS.forEach((vus, index) => {
+	const name = `concurrency_${vus}`;
+	// every level starts after the previous one, with a few seconds in between to drain
+	scenarios[name] = { executor: 'constant-vus', vus, duration: `${DURATION}s`, startTime: `${index * (DURATION + 10)}s`, gracefulStop: '5s' };
+	// a threshold per level makes k6 report the latency and the failures of each level on their own
+	// sign in requests of new virtual users are left out
+	thresholds[`http_req_duration{scenario:${name},phase:run}`] = ['p(99)<5000'];
+	thresholds[`http_req_failed{scenario:${name},phase:run}`] = ['rate<0.01'];
+	thresholds[`rate_limited{scenario:${name}}`] = ['count<1'];
+});
+
+export const options = {
+	scenarios,
+	thresholds,
+	summaryTrendStats: ['avg', 'med', 'p(95)', 'p(99)', 'max'],
+};
+
+// headers of the user of this virtual user, signed in on its first iteration
+let userHeaders;
+
+function signIn(username) {
+	const params = { headers: JSON_HEADERS, tags: { name: 'sign in', phase: 'sign in' } };
+	const user = { username, email: `${username}@example.com`, password: 'loadTestPassword' };
+	http.post(`${BASE_URL}/api/auth/signup`, JSON.stringify(user), params);
+	const response = http.post(`${BASE_URL}/api/auth/signin`,
+		JSON.stringify({ username: user.username, password: user.password }), params);
+	return { Authorization: `Bearer ${response.json('jwt')}`, 'Content-Type': 'application/json' };
+}
+
+export function setup() {
+	const runId = Date.now();
+	const headers = signIn(`load${runId}`);
+
+	const recipes = [];
+	for (let i = 0; i < RECIPES; i++) {
+		recipes.push({
+			name: `Load test recipe ${Date.now()}-${i}`,
+			vegetarian: i % 2 === 0,
+			servingCapacity: 1 + (i % 10),
+			ingredients: [{ name: 'tomato', quantity: 2 }, { name: 'basil', quantity: 1 }, { name: 'pasta', quantity: 200 }],
+			cookingInstructions: 'Boil the pasta, add the tomatoes and the basil and serve.',
+		});
+	}
+	const ids = http.post(`${BASE_URL}/api/recipes/bulk`, JSON.stringify(recipes), { headers }).json()
+		.filter((item) => item.status === 201).map((item) => item.id);
+	return { runId, ids };
+}
+
+export default function (data) {
+	if (!userHeaders)
+		userHeaders = signIn(`load${data.runId}-${__VU}`);
+	const params = { headers: userHeaders };
+	const id = data.ids[Math.floor(Math.random() * data.ids.length)];
+	const pick = Math.random();
+	let response;
+	if (pick < 0.5) {
+		response = http.get(`${BASE_URL}/api/recipes/${id}`, Object.assign({ tags: { name: 'get recipe', phase: 'run' } }, params));
+	} else if (pick < 0.8) {
+		response = http.get(`${BASE_URL}/api/recipes?size=20`, Object.assign({ tags: { name: 'get recipes', phase: 'run' } }, params));
+	} else if (pick < 0.95) {
+		response = http.get(`${BASE_URL}/api/recipes/search?q=tomato&vegetarian=true`,
+			Object.assign({ tags: { name: 'search recipes', phase: 'run' } }, params));
+	} else {
+		response = http.patch(`${BASE_URL}/api/recipes/${id}`, JSON.stringify({ servingCapacity: 1 + Math.floor(Math.random() * 10) }),
+			{ headers: Object.assign({}, userHeaders, { 'Content-Type': 'application/merge-patch+json' }),
+				tags: { name: 'patch recipe', phase: 'run' } });
+	}
+	if (response.status === 429) {
+		rateLimited.add(1);
+		return;
+	}
+	check(response, { 'status is 200': (r) => r.status === 200 });
+}
@@ -0,0 +1,77 @@
+package com.gorkem.recipe.benchmark;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.module.afterburner.AfterburnerModule;
+import com.gorkem.recipe.model.Ingredient;
+import com.gorkem.recipe.model.Recipe;
+import com.gorkem.recipe.security.JwtUtil;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Benchmark utility class that builds the objects of the benchmarks the same way the application does.
+ * 
+ * @author gorkemdemiray
+ */
+public class BenchmarkUtil {
+
+	public static final String JWT_SECRET = "recipeSecretKey";
+	public static final int JWT_EXPIRATION_MS = 86400000;
+	public static final long VERIFIED_TOKEN_CACHE_SIZE = 10000;
+
+	public static JwtUtil getJwtUtil() {
+		JwtUtil jwtUtil = new JwtUtil(VERIFIED_TOKEN_CACHE_SIZE, new SimpleMeterRegistry());
+		ReflectionTestUtils.setField(jwtUtil, "jwtSecret", JWT_SECRET);
+		ReflectionTestUtils.setField(jwtUtil, "jwtExpirationMs", JWT_EXPIRATION_MS);
+		return jwtUtil;
+	}
+
+	/**
+	 * Builds the object mapper of the given format: json, cbor or smile with afterburner as the application does, or
+	 * reflection for json without it.
+	 */
+	public static ObjectMapper getObjectMapper(String format) {
+		Jackson2ObjectMapperBuilder builder = Jackson2ObjectMapperBuilder.json()
+				.featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+		if (format.equals("reflection"))
+			return builder.build();
+		if (format.equals("cbor"))
+			builder.factory(new CBORFactory());
+		else if (format.equals("smile"))
+			builder.factory(new SmileFactory());
+		return builder.modulesToInstall(new AfterburnerModule()).build();
+	}
+
+	public static Recipe getRecipe(int ingredientCount) {
+		List<Ingredient> ingredients = new ArrayList<>(ingredientCount);
+		for (long i = 0; i < ingredientCount; i++)
+			ingredients.add(Ingredient.builder().id(i).name(String.format("ingredient %d", i)).quantity(new BigDecimal("12.50")).build());
+		LocalDateTime now = LocalDateTime.now();
+		return Recipe.builder()
+				.id(1L)
+				.name("Meal-prep Pesto Chicken & Veggies")
+				.creationTime(now)
+				.vegetarian(false)
+				.servingCapacity(4)
+				.ingredients(ingredients)
+				.cookingInstructions("In a large pan, heat olive oil and add chicken thighs.\n"
+						+ "Season with salt and pepper. When the chicken is completely cooked through, remove from pan.\n"
+						+ "Slice into strips, and set aside.\n"
+						+ "Add green beans and cook until crisp tender.\n"
+						+ "Return the chicken strips to the pan, then add tomatoes and pesto. Stir until fully incorporated.\n"
+						+ "Serve immediately or divide into 4 food storage containers and store in the refrigerator.")
+				.lastModified(now)
+				.build();
+	}
+}
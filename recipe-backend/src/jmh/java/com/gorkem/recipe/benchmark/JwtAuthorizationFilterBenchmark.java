@@ -0,0 +1,86 @@
+package com.gorkem.recipe.benchmark;
+
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+import javax.servlet.ServletException;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UserCache;
+import org.springframework.security.core.userdetails.cache.SpringCacheBasedUserCache;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import com.gorkem.recipe.model.User;
+import com.gorkem.recipe.repository.UserRepository;
+import com.gorkem.recipe.security.JwtAuthorizationFilter;
+import com.gorkem.recipe.security.JwtUtil;
+import com.gorkem.recipe.security.PrincipalMode;
+import com.gorkem.recipe.service.UserDetailsImpl;
+import com.gorkem.recipe.service.UserDetailsServiceImpl;
+
+/**
+ * Benchmarks the jwt authorization filter end to end for an authenticated request. The user repository is mocked, so
+ * the results show the cost of the filter itself without the database.
+ * 
+ * @author gorkemdemiray
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtAuthorizationFilterBenchmark {
+
+	@Param({ "CACHE", "CLAIMS" })
+	private PrincipalMode principalMode;
+
+	private JwtAuthorizationFilter jwtAuthorizationFilter;
+	private String authHeader;
+
+	@Setup
+	public void setUp() throws Exception {
+		JwtUtil jwtUtil = BenchmarkUtil.getJwtUtil();
+		User user = User.builder().id(1L).username("username").email("user@user.com").password("password").build();
+		UserRepository userRepository = mock(UserRepository.class);
+		when(userRepository.findByUsername(anyString())).thenReturn(Optional.of(user));
+		UserCache userCache = new SpringCacheBasedUserCache(new ConcurrentMapCache("principals"));
+		jwtAuthorizationFilter = new JwtAuthorizationFilter(jwtUtil, new UserDetailsServiceImpl(userRepository, userCache),
+				userCache);
+		ReflectionTestUtils.setField(jwtAuthorizationFilter, "principalMode", principalMode);
+		UserDetailsImpl userDetails = UserDetailsImpl.build(user);
+		authHeader = "Bearer " + jwtUtil.generateJwtToken(
+				new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities()));
+	}
+
+	@Benchmark
+	public MockHttpServletResponse filterAuthenticatedRequest() throws IOException, ServletException {
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/recipes/1");
+		request.addHeader("Authorization", authHeader);
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		jwtAuthorizationFilter.doFilter(request, response, new MockFilterChain());
+		SecurityContextHolder.clearContext();
+		return response;
+	}
+}
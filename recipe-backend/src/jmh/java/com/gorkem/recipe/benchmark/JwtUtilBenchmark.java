@@ -0,0 +1,72 @@
+package com.gorkem.recipe.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+
+import com.gorkem.recipe.security.JwtUtil;
+import com.gorkem.recipe.security.VerifiedToken;
+import com.gorkem.recipe.service.UserDetailsImpl;
+
+import io.jsonwebtoken.Jwts;
+
+/**
+ * Benchmarks generating and validating jwt tokens.
+ * 
+ * @author gorkemdemiray
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtUtilBenchmark {
+
+	private JwtUtil jwtUtil;
+	private Authentication authentication;
+	private UserDetailsImpl userDetails;
+	private String jwt;
+
+	@Setup
+	public void setUp() {
+		jwtUtil = BenchmarkUtil.getJwtUtil();
+		userDetails = UserDetailsImpl.build("username", "user@user.com");
+		authentication = new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
+		jwt = jwtUtil.generateJwtToken(authentication);
+	}
+
+	@Benchmark
+	public String generateJwtToken() {
+		return jwtUtil.generateJwtToken(authentication);
+	}
+
+	/**
+	 * Parses the token like a verification missing the verified token cache does.
+	 */
+	@Benchmark
+	public String parseJwtToken() {
+		return Jwts.parser().setSigningKey(BenchmarkUtil.JWT_SECRET).parseClaimsJws(jwt).getBody().getSubject();
+	}
+
+	@Benchmark
+	public VerifiedToken verifyJwtToken() {
+		return jwtUtil.verifyJwtToken(jwt);
+	}
+
+	@Benchmark
+	public boolean validateJwtToken() {
+		return jwtUtil.validateJwtToken(jwt, userDetails);
+	}
+}
@@ -0,0 +1,99 @@
+package com.gorkem.recipe.benchmark;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+
+import org.apache.lucene.store.FSDirectory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.gorkem.recipe.model.Ingredient;
+import com.gorkem.recipe.model.Recipe;
+import com.gorkem.recipe.search.RecipeSearchIndex;
+
+/**
+ * Benchmarks search latency of the recipe index on disk. Sample time mode reports the percentiles, p99 included.
+ *
+ * @author gorkemdemiray
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Threads(4)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class RecipeSearchIndexBenchmark {
+
+	private static final String[] WORDS = { "chicken", "beef", "tomato", "basil", "pesto", "garlic", "onion", "rice",
+			"pasta", "lentil", "spinach", "mushroom", "lemon", "ginger", "chili", "cheese", "potato", "salmon", "tofu",
+			"bean", "pepper", "carrot", "yogurt", "honey", "curry", "coconut", "almond", "oat", "egg", "butter" };
+
+	@Param({ "100000", "1000000" })
+	private int recipeCount;
+
+	private RecipeSearchIndex recipeSearchIndex;
+
+	@Setup(Level.Trial)
+	public void setUp() throws IOException {
+		recipeSearchIndex = new RecipeSearchIndex(FSDirectory.open(Files.createTempDirectory("recipe-index")));
+		Random random = new Random(42);
+		recipeSearchIndex.rebuild(LongStream.range(0, recipeCount).mapToObj(id -> getRecipe(id, random)));
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() throws IOException {
+		recipeSearchIndex.close();
+	}
+
+	@Benchmark
+	public List<Long> searchText() throws IOException {
+		return recipeSearchIndex.search("chicken pesto", null, null, null, 0, 21);
+	}
+
+	@Benchmark
+	public List<Long> searchTextWithFilters() throws IOException {
+		return recipeSearchIndex.search("garlic rice", true, 2, 6, 0, 21);
+	}
+
+	@Benchmark
+	public List<Long> searchFiltersOnly() throws IOException {
+		return recipeSearchIndex.search(null, false, 4, 4, 0, 21);
+	}
+
+	private static Recipe getRecipe(long id, Random random) {
+		List<Ingredient> ingredients = new ArrayList<>(5);
+		for (int i = 0; i < 5; i++)
+			ingredients.add(Ingredient.builder().name(word(random)).build());
+		return Recipe.builder()
+				.id(id)
+				.name(String.format("%s %s %s", word(random), word(random), word(random)))
+				.vegetarian(random.nextBoolean())
+				.servingCapacity(1 + random.nextInt(10))
+				.ingredients(ingredients)
+				.cookingInstructions(String.format("Cook the %s with %s, add %s and serve with %s.", word(random),
+						word(random), word(random), word(random)))
+				.build();
+	}
+
+	private static String word(Random random) {
+		return WORDS[random.nextInt(WORDS.length)];
+	}
+}
@@ -0,0 +1,89 @@
+package com.gorkem.recipe.benchmark;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.gorkem.recipe.model.Recipe;
+
+/**
+ * Benchmarks jackson serialization and deserialization of recipes with different ingredient counts in each response
+ * format: json with reflection as before, json with afterburner as the application does now, cbor and smile, each
+ * with and without gzip. The payload counter reports the bytes on the wire of a serialized recipe.
+ * 
+ * @author gorkemdemiray
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RecipeSerializationBenchmark {
+
+	@Param({ "1", "10", "100" })
+	private int ingredientCount;
+
+	@Param({ "reflection", "json", "cbor", "smile" })
+	private String format;
+
+	@Param({ "false", "true" })
+	private boolean gzip;
+
+	private ObjectMapper objectMapper;
+	private Recipe recipe;
+	private byte[] payload;
+
+	/**
+	 * Bytes of the last serialized recipe, reported next to the time of each benchmark.
+	 */
+	@State(Scope.Thread)
+	@AuxCounters(AuxCounters.Type.EVENTS)
+	public static class Payload {
+		public long bytes;
+	}
+
+	@Setup
+	public void setUp() throws IOException {
+		objectMapper = BenchmarkUtil.getObjectMapper(format);
+		recipe = BenchmarkUtil.getRecipe(ingredientCount);
+		payload = objectMapper.writeValueAsBytes(recipe);
+	}
+
+	@Benchmark
+	public byte[] serializeRecipe(Payload counter) throws IOException {
+		byte[] bytes = objectMapper.writeValueAsBytes(recipe);
+		if (gzip)
+			bytes = compress(bytes);
+		counter.bytes = bytes.length;
+		return bytes;
+	}
+
+	@Benchmark
+	public Recipe deserializeRecipe() throws IOException {
+		return objectMapper.readValue(payload, Recipe.class);
+	}
+
+	private static byte[] compress(byte[] bytes) throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream(bytes.length);
+		try (GZIPOutputStream gzipOut = new GZIPOutputStream(out)) {
+			gzipOut.write(bytes);
+		}
+		return out.toByteArray();
+	}
+}
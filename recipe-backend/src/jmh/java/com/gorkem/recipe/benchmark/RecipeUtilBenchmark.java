@@ -0,0 +1,43 @@
+package com.gorkem.recipe.benchmark;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.gorkem.recipe.util.RecipeUtil;
+
+/**
+ * Benchmarks recipe utility operations.
+ * 
+ * @author gorkemdemiray
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RecipeUtilBenchmark {
+
+	private LocalDateTime localDateTime;
+
+	@Setup
+	public void setUp() {
+		localDateTime = LocalDateTime.now();
+	}
+
+	@Benchmark
+	public String convertDateTimeToString() {
+		return RecipeUtil.convertDateTimeToString(localDateTime);
+	}
+}
@@ -0,0 +1,46 @@
+package com.gorkem.recipe.config;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.transaction.TransactionAwareCacheManagerProxy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.security.core.userdetails.UserCache;
+import org.springframework.security.core.userdetails.cache.SpringCacheBasedUserCache;
+
+/**
+ * Cache config for Recipe API. The cache provider is chosen with spring.cache.type, so a single node can use the
+ * local caffeine cache and a cluster can switch to a shared one like redis without any code change.
+ * <p>
+ * Whatever the provider, puts and evictions made inside a transaction are applied after it commits. An update
+ * evicting its recipe before the commit would let a concurrent read cache the old row again, until it expires.
+ * 
+ * @author gorkemdemiray
+ */
+@Configuration
+@EnableCaching
+public class CacheConfig {
+
+	public static final String RECIPES = "recipes";
+	public static final String RECIPE_PAGES = "recipePages";
+	public static final String PRINCIPALS = "principals";
+	
+	@Bean
+	public static BeanPostProcessor transactionAwareCacheManagerPostProcessor() {
+		return new BeanPostProcessor() {
+
+			@Override
+			public Object postProcessAfterInitialization(Object bean, String beanName) {
+				if (bean instanceof CacheManager && !(bean instanceof TransactionAwareCacheManagerProxy))
+					return new TransactionAwareCacheManagerProxy((CacheManager) bean);
+				return bean;
+			}
+		};
+	}
+	
+	@Bean
+	public UserCache userCache(CacheManager cacheManager) throws Exception {
+		return new SpringCacheBasedUserCache(cacheManager.getCache(PRINCIPALS));
+	}
+}
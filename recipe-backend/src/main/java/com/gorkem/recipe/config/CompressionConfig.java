@@ -0,0 +1,26 @@
+package com.gorkem.recipe.config;
+
+import org.apache.coyote.http11.AbstractHttp11Protocol;
+import org.springframework.boot.web.embedded.tomcat.TomcatConnectorCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Compression config for Recipe API. Tomcat leaves responses with a strong etag uncompressed by default, which are
+ * the recipe and page responses, so that check is turned off for the compression properties to apply to them. Etags
+ * stay strong, as If-Match compares them strongly, and name the gzip coding when the request accepts it, so a gzipped
+ * and an identity body never share one.
+ *
+ * @author gorkemdemiray
+ */
+@Configuration
+public class CompressionConfig {
+
+	@Bean
+	public TomcatConnectorCustomizer strongETagCompressionCustomizer() {
+		return connector -> {
+			if (connector.getProtocolHandler() instanceof AbstractHttp11Protocol)
+				((AbstractHttp11Protocol<?>) connector.getProtocolHandler()).setNoCompressionStrongETag(false);
+		};
+	}
+}
@@ -0,0 +1,32 @@
+package com.gorkem.recipe.config;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.gorkem.recipe.metrics.RepositoryMetrics;
+import com.zaxxer.hikari.HikariDataSource;
+
+/**
+ * Data source config for Recipe API. The pool and the driver are configured with the spring.datasource.hikari
+ * properties, and every connection pool is wrapped with a jdbc proxy that records the queries and the connection
+ * acquisitions of each repository method.
+ *
+ * @author gorkemdemiray
+ */
+@Configuration
+public class DataSourceConfig {
+
+	@Bean
+	public static BeanPostProcessor dataSourceMetricsPostProcessor(ObjectProvider<RepositoryMetrics> repositoryMetrics) {
+		return new BeanPostProcessor() {
+			@Override
+			public Object postProcessAfterInitialization(Object bean, String beanName) {
+				if (bean instanceof HikariDataSource)
+					return repositoryMetrics.getObject().instrument((HikariDataSource) bean);
+				return bean;
+			}
+		};
+	}
+}
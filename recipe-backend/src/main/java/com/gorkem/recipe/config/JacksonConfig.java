@@ -0,0 +1,57 @@
+package com.gorkem.recipe.config;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import com.fasterxml.jackson.databind.Module;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.module.afterburner.AfterburnerModule;
+
+/**
+ * Jackson config for Recipe API. Recipes are serialized with generated bytecode instead of reflection, and besides
+ * json they can be read and written as cbor (application/cbor) or smile (application/x-jackson-smile) when the
+ * client asks for them in Accept or Content-Type. The binary converters come after the json one, so json stays the
+ * default for clients accepting anything.
+ *
+ * @author gorkemdemiray
+ */
+@Configuration
+public class JacksonConfig implements WebMvcConfigurer {
+
+	public static final MediaType APPLICATION_SMILE = new MediaType("application", "x-jackson-smile");
+	/**
+	 * Media types recipes are written as, in the order of their converters.
+	 */
+	public static final List<MediaType> MEDIA_TYPES = Arrays.asList(MediaType.APPLICATION_JSON,
+			MediaType.APPLICATION_CBOR, APPLICATION_SMILE);
+
+	private final ObjectProvider<Jackson2ObjectMapperBuilder> objectMapperBuilder;
+
+	public JacksonConfig(ObjectProvider<Jackson2ObjectMapperBuilder> objectMapperBuilder) {
+		this.objectMapperBuilder = objectMapperBuilder;
+	}
+
+	@Bean
+	public static Module afterburnerModule() {
+		return new AfterburnerModule();
+	}
+
+	@Override
+	public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+		converters.add(new MappingJackson2CborHttpMessageConverter(
+				objectMapperBuilder.getObject().factory(new CBORFactory()).build()));
+		converters.add(new MappingJackson2SmileHttpMessageConverter(
+				objectMapperBuilder.getObject().factory(new SmileFactory()).build()));
+	}
+}
@@ -0,0 +1,20 @@
+package com.gorkem.recipe.config;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a read only method whose reads run on the primary even when the client is not pinned to it. Its result is
+ * either kept for other clients, like a cached recipe or the search index, or must not miss a write the replica has
+ * not applied yet.
+ *
+ * @author gorkemdemiray
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface PrimaryRead {
+}
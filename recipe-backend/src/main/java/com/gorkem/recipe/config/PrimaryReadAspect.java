@@ -0,0 +1,27 @@
+package com.gorkem.recipe.config;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+
+/**
+ * Routes the read only transactions of the methods marked with {@link PrimaryRead} to the primary. Connections are
+ * fetched on the first statement, so the route holds whether the transaction starts inside or outside this advice.
+ *
+ * @author gorkemdemiray
+ */
+@Aspect
+public class PrimaryReadAspect {
+
+	@Around("@annotation(com.gorkem.recipe.config.PrimaryRead)")
+	public Object readFromPrimary(final ProceedingJoinPoint joinPoint) throws Throwable {
+		final boolean nested = ReplicaRoutingDataSource.PRIMARY_READ.get();
+		ReplicaRoutingDataSource.PRIMARY_READ.set(Boolean.TRUE);
+		try {
+			return joinPoint.proceed();
+		} finally {
+			if (!nested)
+				ReplicaRoutingDataSource.PRIMARY_READ.remove();
+		}
+	}
+}
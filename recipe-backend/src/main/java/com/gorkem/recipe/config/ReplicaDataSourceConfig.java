@@ -0,0 +1,68 @@
+package com.gorkem.recipe.config;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+/**
+ * Replica data source config for Recipe API, active when recipe.datasource.replica.jdbc-url is set. The primary pool
+ * is configured with the spring.datasource properties as before and the replica pool with the
+ * recipe.datasource.replica properties. Read only transactions, whose sessions are never flushed, run on the replica
+ * and the rest on the primary, except for the reads marked with {@link PrimaryRead}. Schema migrations run on the
+ * primary only.
+ *
+ * @author gorkemdemiray
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "recipe.datasource.replica", name = "jdbc-url")
+public class ReplicaDataSourceConfig {
+
+	@Bean
+	@ConfigurationProperties("spring.datasource.hikari")
+	public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+		return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+	}
+
+	@Bean
+	@ConfigurationProperties("recipe.datasource.replica")
+	public HikariDataSource replicaDataSource() {
+		return DataSourceBuilder.create().type(HikariDataSource.class).build();
+	}
+
+	/**
+	 * The pools are wrapped by the metrics proxy of {@link DataSourceConfig}, so they are injected as data sources.
+	 */
+	@Bean
+	@Primary
+	public DataSource dataSource(@Qualifier("primaryDataSource") DataSource primaryDataSource,
+			@Qualifier("replicaDataSource") DataSource replicaDataSource,
+			@Value("${recipe.app.replicaPinMs}") long replicaPinMs) {
+		final Map<Object, Object> dataSources = new HashMap<>();
+		dataSources.put(ReplicaRoutingDataSource.PRIMARY, primaryDataSource);
+		dataSources.put(ReplicaRoutingDataSource.REPLICA, replicaDataSource);
+		final ReplicaRoutingDataSource routingDataSource = new ReplicaRoutingDataSource(replicaPinMs);
+		routingDataSource.setTargetDataSources(dataSources);
+		routingDataSource.setDefaultTargetDataSource(primaryDataSource);
+		routingDataSource.afterPropertiesSet();
+		return new LazyConnectionDataSourceProxy(routingDataSource);
+	}
+
+	@Bean
+	public PrimaryReadAspect primaryReadAspect() {
+		return new PrimaryReadAspect();
+	}
+}
@@ -0,0 +1,71 @@
+package com.gorkem.recipe.config;
+
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+/**
+ * Sends the connections of read only transactions to the replica and everything else to the primary. A client whose
+ * write transaction committed is pinned to the primary for a while, so it reads its own writes while the replica
+ * catches up. Clients are told apart by the authenticated user, or by the remote address before sign in. Methods
+ * marked with {@link PrimaryRead} read from the primary for every client.
+ * <p>
+ * The lookup runs when a connection is fetched, so it must be wrapped in a lazy connection proxy: the transaction
+ * manager asks for a connection before the transaction is marked read only, and the proxy fetches it on the first
+ * statement.
+ *
+ * @author gorkemdemiray
+ */
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+	public static final String PRIMARY = "primary";
+	public static final String REPLICA = "replica";
+
+	static final ThreadLocal<Boolean> PRIMARY_READ = ThreadLocal.withInitial(() -> Boolean.FALSE);
+
+	private final Cache<String, Boolean> pinnedClients;
+
+	public ReplicaRoutingDataSource(long pinMs) {
+		this.pinnedClients = Caffeine.newBuilder().expireAfterWrite(pinMs, TimeUnit.MILLISECONDS)
+				.maximumSize(100000).build();
+	}
+
+	@Override
+	protected Object determineCurrentLookupKey() {
+		final String client = getClient();
+		if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+			if (client != null && TransactionSynchronizationManager.isSynchronizationActive())
+				TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+					@Override
+					public void afterCommit() {
+						pinnedClients.put(client, Boolean.TRUE);
+					}
+				});
+			return PRIMARY;
+		}
+		if (PRIMARY_READ.get())
+			return PRIMARY;
+		return client != null && pinnedClients.getIfPresent(client) != null ? PRIMARY : REPLICA;
+	}
+
+	private String getClient() {
+		final Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+		if (authentication != null && !(authentication instanceof AnonymousAuthenticationToken))
+			return authentication.getName();
+		final RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+		if (attributes instanceof ServletRequestAttributes)
+			return ((ServletRequestAttributes) attributes).getRequest().getRemoteAddr();
+		return null;
+	}
+}
@@ -0,0 +1,15 @@
+package com.gorkem.recipe.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Scheduling config for Recipe API. Periodic housekeeping, like purging old recipe tombstones, runs on the single
+ * thread of the auto-configured task scheduler.
+ * 
+ * @author gorkemdemiray
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
@@ -0,0 +1,50 @@
+package com.gorkem.recipe.config;
+
+import java.lang.reflect.InvocationTargetException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.support.TaskExecutorAdapter;
+
+/**
+ * Runs every request, and the async work of streaming responses, on its own virtual thread instead of the bounded
+ * Tomcat worker pool, so requests waiting on the database no longer use up the worker threads. Database access
+ * stays bounded by the connection pool, whose waiters park without holding a carrier thread.
+ * <p>
+ * The application is built for Java 8, so the virtual thread executor is looked up at runtime and the profile
+ * needs a Java 21 or later runtime.
+ *
+ * @author gorkemdemiray
+ */
+@Configuration
+@Profile(VirtualThreadConfig.PROFILE)
+public class VirtualThreadConfig {
+
+	public static final String PROFILE = "virtual-threads";
+
+	@Bean(destroyMethod = "shutdown")
+	public ExecutorService virtualThreadExecutor() {
+		try {
+			return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+		} catch (NoSuchMethodException | IllegalAccessException | InvocationTargetException ex) {
+			throw new IllegalStateException(String.format("Profile %s needs Java 21 or later, running on %s", PROFILE,
+					System.getProperty("java.version")), ex);
+		}
+	}
+
+	@Bean
+	public TomcatProtocolHandlerCustomizer<?> virtualThreadProtocolHandlerCustomizer(
+			ExecutorService virtualThreadExecutor) {
+		return protocolHandler -> protocolHandler.setExecutor(virtualThreadExecutor);
+	}
+
+	@Bean
+	public AsyncTaskExecutor applicationTaskExecutor(ExecutorService virtualThreadExecutor) {
+		return new TaskExecutorAdapter(virtualThreadExecutor);
+	}
+}
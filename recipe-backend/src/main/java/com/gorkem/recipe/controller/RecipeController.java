@@ -1,24 +1,52 @@
 package com.gorkem.recipe.controller;
 
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 
+import javax.servlet.http.HttpServletResponse;
 import javax.validation.Valid;
 
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.format.annotation.DateTimeFormat.ISO;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.HttpMediaTypeNotAcceptableException;
 import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.accept.ContentNegotiationManager;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.gorkem.recipe.config.JacksonConfig;
 import com.gorkem.recipe.model.Recipe;
+import com.gorkem.recipe.payload.response.BulkItemResponse;
+import com.gorkem.recipe.payload.response.CursorPage;
+import com.gorkem.recipe.payload.response.RecipeMatch;
+import com.gorkem.recipe.payload.response.RecipeSummary;
+import com.gorkem.recipe.payload.response.SearchPage;
+import com.gorkem.recipe.service.RecipeCriteria;
+import com.gorkem.recipe.service.RecipeSearchService;
 import com.gorkem.recipe.service.RecipeService;
+import com.gorkem.recipe.service.RecipeStreamService;
+import com.gorkem.recipe.service.RecipeVersion;
 
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
@@ -29,15 +57,30 @@ import io.swagger.v3.oas.annotations.responses.ApiResponses;
  * 
  * @author gorkemdemiray
  */
-@CrossOrigin(origins = "*", maxAge = 3600)
+@CrossOrigin(origins = "*", maxAge = 3600, exposedHeaders = HttpHeaders.ETAG)
 @RestController
 @RequestMapping("/api/recipes")
 public class RecipeController {
 
+	public static final String MERGE_PATCH_JSON_VALUE = "application/merge-patch+json";
+	public static final String SUMMARY_VIEW = "summary";
+	public static final String FULL_VIEW = "full";
+	private static final String GZIP = "gzip";
+
 	private final RecipeService recipeService;
+	private final RecipeSearchService recipeSearchService;
+	private final RecipeStreamService recipeStreamService;
+	private final ContentNegotiationManager contentNegotiationManager;
+
+	@Value("${server.compression.enabled:false}")
+	private boolean compressionEnabled;
 
-	public RecipeController(RecipeService recipeService) {
+	public RecipeController(RecipeService recipeService, RecipeSearchService recipeSearchService,
+			RecipeStreamService recipeStreamService, ContentNegotiationManager contentNegotiationManager) {
 		this.recipeService = recipeService;
+		this.recipeSearchService = recipeSearchService;
+		this.recipeStreamService = recipeStreamService;
+		this.contentNegotiationManager = contentNegotiationManager;
 	}
 
 	@PostMapping
@@ -52,29 +95,154 @@ public class RecipeController {
 		return ResponseEntity.status(HttpStatus.CREATED).body(savedRecipe);
 	}
 
+	@PostMapping("/bulk")
+	@Operation(summary = "Creates recipes in one transaction if user is authorized. Returns a result for each recipe.")
+	@ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Returns the status and id of each recipe by its index."),
+            @ApiResponse(responseCode = "400", description = "Too many recipes in one request."),
+            @ApiResponse(responseCode = "401", description = "Unauthorized user.")
+    })
+	public ResponseEntity<?> createRecipes(@RequestHeader(value = "Authorization", required = true) String authHeader,
+			@RequestBody List<Recipe> recipes) {
+		final List<BulkItemResponse> responses = recipeService.createRecipes(recipes);
+		return ResponseEntity.status(HttpStatus.OK).body(responses);
+	}
+
 	@GetMapping("/{id}")
 	@Operation(summary = "Gets recipe with given id if user is authorized.")
 	@ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Returns the recipe object with given id."),
+            @ApiResponse(responseCode = "304", description = "Recipe is not modified since the given version."),
             @ApiResponse(responseCode = "404", description = "Recipe not found."),
             @ApiResponse(responseCode = "401", description = "Unauthorized user.")
     })
 	public ResponseEntity<?> getRecipe(@RequestHeader(value = "Authorization", required = true) String authHeader,
-			@PathVariable Long id) {
+			@PathVariable Long id, NativeWebRequest webRequest) throws HttpMediaTypeNotAcceptableException {
+		if (isConditional(webRequest) && checkNotModified(recipeService.getRecipeVersion(id), FULL_VIEW, webRequest))
+			return null;
 		final Recipe recipe = recipeService.getRecipe(id);
+		setVersion(RecipeVersion.of(recipe.getId(), recipe.getVersion(), recipe.getLastModified()), FULL_VIEW,
+				webRequest);
 		return ResponseEntity.status(HttpStatus.OK).body(recipe);
 	}
 
 	@GetMapping
-	@Operation(summary = "Gets all recipes if user is authorized.")
+	@Operation(summary = "Gets recipes page by page if user is authorized. All recipes are returned at once only if unpaged is set. With view=summary a page holds only the id, name, vegetarian flag, serving capacity and ingredient count of the recipes. Pages can be limited to the recipes created after and before the given ISO date times and sorted by creation time with sort=created.")
 	@ApiResponses(value = {
-            @ApiResponse(responseCode = "200", description = "Returns all recipe objects."),
+            @ApiResponse(responseCode = "200", description = "Returns a page of recipe objects with the link of the next page."),
+            @ApiResponse(responseCode = "304", description = "Recipes are not modified since the given version."),
+            @ApiResponse(responseCode = "400", description = "Invalid cursor, creation time or sort."),
             @ApiResponse(responseCode = "404", description = "Recipe not found."),
             @ApiResponse(responseCode = "401", description = "Unauthorized user.")
     })
-	public ResponseEntity<?> getAllRecipes(@RequestHeader(value = "Authorization", required = true) String authHeader) {
-		final List<Recipe> recipes = recipeService.getAllRecipes();
-		return ResponseEntity.status(HttpStatus.OK).body(recipes);
+	public ResponseEntity<?> getAllRecipes(@RequestHeader(value = "Authorization", required = true) String authHeader,
+			@RequestParam(required = false) String cursor, @RequestParam(required = false) Integer size,
+			@RequestParam(defaultValue = "false") boolean unpaged, @RequestParam(required = false) String view,
+			@RequestParam(required = false) @DateTimeFormat(iso = ISO.DATE_TIME) LocalDateTime createdAfter,
+			@RequestParam(required = false) @DateTimeFormat(iso = ISO.DATE_TIME) LocalDateTime createdBefore,
+			@RequestParam(required = false) String sort, NativeWebRequest webRequest)
+			throws HttpMediaTypeNotAcceptableException {
+		if (unpaged) {
+			if (checkNotModified(recipeService.getAllRecipesVersion(), FULL_VIEW, webRequest))
+				return null;
+			final List<Recipe> recipes = recipeService.getAllRecipes();
+			return ResponseEntity.status(HttpStatus.OK).body(recipes);
+		}
+		final RecipeCriteria criteria = RecipeCriteria.of(createdAfter, createdBefore, sort);
+		final boolean summary = SUMMARY_VIEW.equalsIgnoreCase(view);
+		if (isConditional(webRequest) && checkNotModified(recipeService.getRecipesVersion(cursor, size, criteria),
+				summary ? SUMMARY_VIEW : FULL_VIEW, webRequest))
+			return null;
+		final CursorPage<?> page;
+		if (summary) {
+			final CursorPage<RecipeSummary> summaries = recipeService.getRecipeSummaries(cursor, size, criteria);
+			setVersion(RecipeVersion.of(summaries, RecipeSummary::getId, RecipeSummary::getVersion,
+					RecipeSummary::getLastModified), SUMMARY_VIEW, webRequest);
+			page = summaries;
+		} else {
+			final CursorPage<Recipe> recipes = recipeService.getRecipes(cursor, size, criteria);
+			setVersion(RecipeVersion.of(recipes, Recipe::getId, Recipe::getVersion, Recipe::getLastModified), FULL_VIEW,
+					webRequest);
+			page = recipes;
+		}
+		if (page.getNextCursor() == null)
+			return ResponseEntity.status(HttpStatus.OK).body(page);
+		final String next = ServletUriComponentsBuilder.fromCurrentRequest()
+				.replaceQueryParam("cursor", page.getNextCursor()).toUriString();
+		return ResponseEntity.status(HttpStatus.OK).body(new CursorPage<>(page.getContent(), page.getNextCursor(), next));
+	}
+
+	@GetMapping("/search")
+	@Operation(summary = "Searches recipes by name, ingredients and cooking instructions if user is authorized. Results can be filtered by vegetarian and serving capacity.")
+	@ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Returns a page of matching recipe objects by relevance with the link of the next page."),
+            @ApiResponse(responseCode = "400", description = "Invalid page or size."),
+            @ApiResponse(responseCode = "401", description = "Unauthorized user.")
+    })
+	public ResponseEntity<?> searchRecipes(@RequestHeader(value = "Authorization", required = true) String authHeader,
+			@RequestParam(required = false) String q, @RequestParam(required = false) Boolean vegetarian,
+			@RequestParam(required = false) Integer minServingCapacity, @RequestParam(required = false) Integer maxServingCapacity,
+			@RequestParam(required = false) Integer page, @RequestParam(required = false) Integer size) {
+		final SearchPage<Recipe> searchPage = recipeSearchService.searchRecipes(q, vegetarian, minServingCapacity,
+				maxServingCapacity, page, size);
+		if (!searchPage.isLast())
+			searchPage.setNext(ServletUriComponentsBuilder.fromCurrentRequest()
+					.replaceQueryParam("page", searchPage.getPage() + 1).toUriString());
+		return ResponseEntity.status(HttpStatus.OK).body(searchPage);
+	}
+
+	@GetMapping("/by-ingredients")
+	@Operation(summary = "Finds recipes by the included and excluded ingredients if user is authorized. With maxMissing, recipes needing at most that many other ingredients also match.")
+	@ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Returns a page of matching recipe objects with their missing ingredients, fewest missing first."),
+            @ApiResponse(responseCode = "400", description = "Invalid page, size or max missing."),
+            @ApiResponse(responseCode = "401", description = "Unauthorized user.")
+    })
+	public ResponseEntity<?> findRecipesByIngredients(@RequestHeader(value = "Authorization", required = true) String authHeader,
+			@RequestParam(required = false) List<String> include, @RequestParam(required = false) List<String> exclude,
+			@RequestParam(required = false) Integer maxMissing, @RequestParam(required = false) Integer page,
+			@RequestParam(required = false) Integer size) {
+		final SearchPage<RecipeMatch> searchPage = recipeSearchService.findRecipesByIngredients(include, exclude,
+				maxMissing, page, size);
+		if (!searchPage.isLast())
+			searchPage.setNext(ServletUriComponentsBuilder.fromCurrentRequest()
+					.replaceQueryParam("page", searchPage.getPage() + 1).toUriString());
+		return ResponseEntity.status(HttpStatus.OK).body(searchPage);
+	}
+
+	@GetMapping("/changes")
+	@Operation(summary = "Gets the recipes modified and the ids of the recipes deleted since the given token if user is authorized. Without a token all recipes are returned. The next token of the response is sent on the next call.")
+	@ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Returns the modified recipe objects, the deleted recipe ids and the next token. More is set when there are more changes to get right away."),
+            @ApiResponse(responseCode = "400", description = "Invalid token."),
+            @ApiResponse(responseCode = "410", description = "Token is older than the kept deletions, all recipes must be synced again."),
+            @ApiResponse(responseCode = "401", description = "Unauthorized user.")
+    })
+	public ResponseEntity<?> getChanges(@RequestHeader(value = "Authorization", required = true) String authHeader,
+			@RequestParam(required = false) String since, @RequestParam(required = false) Integer size) {
+		return ResponseEntity.status(HttpStatus.OK).body(recipeService.getChanges(since, size));
+	}
+
+	@GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+	@Operation(summary = "Exports all recipes as newline delimited json if user is authorized.")
+	@ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Streams all recipe objects, one per line."),
+            @ApiResponse(responseCode = "401", description = "Unauthorized user.")
+    })
+	public ResponseEntity<StreamingResponseBody> exportRecipes(@RequestHeader(value = "Authorization", required = true) String authHeader) {
+		final StreamingResponseBody body = outputStream -> recipeService.exportRecipes(outputStream);
+		return ResponseEntity.status(HttpStatus.OK).contentType(MediaType.APPLICATION_NDJSON).body(body);
+	}
+
+	@GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+	@Operation(summary = "Streams the created, updated and deleted recipes as server-sent events if user is authorized. A reconnecting client gets the events after its Last-Event-ID, or a reset event if they are not kept anymore.")
+	@ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Streams created and updated events with the recipe object and deleted events with the recipe id."),
+            @ApiResponse(responseCode = "401", description = "Unauthorized user.")
+    })
+	public SseEmitter streamRecipes(@RequestHeader(value = "Authorization", required = true) String authHeader,
+			@RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
+		return recipeStreamService.subscribe(lastEventId);
 	}
 
 	@PutMapping("/{id}")
@@ -83,12 +251,51 @@ public class RecipeController {
             @ApiResponse(responseCode = "200", description = "Updates recipe and returns the object."),
             @ApiResponse(responseCode = "404", description = "Recipe not found."),
             @ApiResponse(responseCode = "409", description = "Recipe already exists."),
+            @ApiResponse(responseCode = "412", description = "Recipe is modified since the version in If-Match."),
             @ApiResponse(responseCode = "401", description = "Unauthorized user.")
     })
 	public ResponseEntity<?> updateRecipe(@RequestHeader(value = "Authorization", required = true) String authHeader,
-			@PathVariable Long id, @Valid @RequestBody Recipe recipe) {
-		final Recipe savedRecipe = recipeService.updateRecipe(id, recipe);
-		return ResponseEntity.status(HttpStatus.OK).body(savedRecipe);
+			@RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+			@PathVariable Long id, @Valid @RequestBody Recipe recipe, NativeWebRequest webRequest)
+			throws HttpMediaTypeNotAcceptableException {
+		final Recipe savedRecipe = recipeService.updateRecipe(id, recipe, ifMatch);
+		final RecipeVersion version = negotiate(RecipeVersion.of(savedRecipe.getId(), savedRecipe.getVersion(),
+				savedRecipe.getLastModified()), FULL_VIEW, webRequest);
+		return ResponseEntity.status(HttpStatus.OK).eTag(version.getETag()).lastModified(version.getLastModified())
+				.body(savedRecipe);
+	}
+
+	@PatchMapping(value = "/{id}", consumes = MERGE_PATCH_JSON_VALUE)
+	@Operation(summary = "Updates only the fields in the JSON merge patch of the recipe with given id if user is authorized.")
+	@ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Updates recipe and returns the object."),
+            @ApiResponse(responseCode = "400", description = "Patch is not an object or the patched recipe is invalid."),
+            @ApiResponse(responseCode = "404", description = "Recipe not found."),
+            @ApiResponse(responseCode = "412", description = "Recipe is modified since the version in If-Match or in the patch."),
+            @ApiResponse(responseCode = "401", description = "Unauthorized user.")
+    })
+	public ResponseEntity<?> patchRecipe(@RequestHeader(value = "Authorization", required = true) String authHeader,
+			@RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+			@PathVariable Long id, @RequestBody JsonNode patch, NativeWebRequest webRequest)
+			throws HttpMediaTypeNotAcceptableException {
+		final Recipe savedRecipe = recipeService.patchRecipe(id, patch, ifMatch);
+		final RecipeVersion version = negotiate(RecipeVersion.of(savedRecipe.getId(), savedRecipe.getVersion(),
+				savedRecipe.getLastModified()), FULL_VIEW, webRequest);
+		return ResponseEntity.status(HttpStatus.OK).eTag(version.getETag()).lastModified(version.getLastModified())
+				.body(savedRecipe);
+	}
+
+	@PutMapping("/bulk")
+	@Operation(summary = "Updates recipes with given ids in one transaction if user is authorized. Returns a result for each recipe.")
+	@ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Returns the status and id of each recipe by its index."),
+            @ApiResponse(responseCode = "400", description = "Too many recipes in one request."),
+            @ApiResponse(responseCode = "401", description = "Unauthorized user.")
+    })
+	public ResponseEntity<?> updateRecipes(@RequestHeader(value = "Authorization", required = true) String authHeader,
+			@RequestBody List<Recipe> recipes) {
+		final List<BulkItemResponse> responses = recipeService.updateRecipes(recipes);
+		return ResponseEntity.status(HttpStatus.OK).body(responses);
 	}
 
 	@DeleteMapping("/{id}")
@@ -103,4 +310,87 @@ public class RecipeController {
 		recipeService.deleteRecipe(id);
 		return ResponseEntity.status(HttpStatus.NO_CONTENT).body(id.toString());
 	}
+
+	@DeleteMapping("/bulk")
+	@Operation(summary = "Deletes recipes with given ids in one transaction if user is authorized. Returns a result for each recipe.")
+	@ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Returns the status and id of each recipe by its index."),
+            @ApiResponse(responseCode = "400", description = "Too many recipes in one request."),
+            @ApiResponse(responseCode = "401", description = "Unauthorized user.")
+    })
+	public ResponseEntity<?> deleteRecipes(@RequestHeader(value = "Authorization", required = true) String authHeader,
+			@RequestBody List<Long> ids) {
+		final List<BulkItemResponse> responses = recipeService.deleteRecipes(ids);
+		return ResponseEntity.status(HttpStatus.OK).body(responses);
+	}
+
+	/**
+	 * Checks the conditional headers of a request against the version of the representation it gets. Caches are told
+	 * how the body varies, for the 304 responses too.
+	 */
+	private boolean checkNotModified(final RecipeVersion version, final String view, final NativeWebRequest webRequest)
+			throws HttpMediaTypeNotAcceptableException {
+		final RecipeVersion representationVersion = negotiate(version, view, webRequest);
+		varyByRepresentation(webRequest.getNativeResponse(HttpServletResponse.class));
+		return webRequest.checkNotModified(representationVersion.getETag(), representationVersion.getLastModified());
+	}
+
+	/**
+	 * Writes the version of the representation a response gets. It replaces the version a conditional request was
+	 * checked against, as the body loaded after the check may be newer.
+	 */
+	private void setVersion(final RecipeVersion version, final String view, final NativeWebRequest webRequest)
+			throws HttpMediaTypeNotAcceptableException {
+		final RecipeVersion representationVersion = negotiate(version, view, webRequest);
+		final HttpServletResponse response = webRequest.getNativeResponse(HttpServletResponse.class);
+		response.setHeader(HttpHeaders.ETAG, representationVersion.getETag());
+		if (representationVersion.getLastModified() >= 0)
+			response.setDateHeader(HttpHeaders.LAST_MODIFIED, representationVersion.getLastModified());
+		varyByRepresentation(response);
+	}
+
+	/**
+	 * Tells caches the body varies by Accept, and by Accept-Encoding when compression is on, as its etag does.
+	 */
+	private void varyByRepresentation(final HttpServletResponse response) {
+		final List<String> headers = compressionEnabled ? Arrays.asList(HttpHeaders.ACCEPT, HttpHeaders.ACCEPT_ENCODING)
+				: Collections.singletonList(HttpHeaders.ACCEPT);
+		for (String header : headers)
+			if (!response.getHeaders(HttpHeaders.VARY).contains(header))
+				response.addHeader(HttpHeaders.VARY, header);
+	}
+
+	/**
+	 * Tells whether a request has a header a 304 response could answer, which is the only case its version is read
+	 * before its body.
+	 */
+	private boolean isConditional(final NativeWebRequest webRequest) {
+		return webRequest.getHeader(HttpHeaders.IF_NONE_MATCH) != null
+				|| webRequest.getHeader(HttpHeaders.IF_MODIFIED_SINCE) != null;
+	}
+
+	/**
+	 * Returns the version of the view in the media type the body is written as, picked like the message converters
+	 * pick it: the first of the recipe media types the most preferred accepted type is compatible with. Bodies that
+	 * Tomcat may gzip get their own version, so a gzipped and an identity body never share a strong etag.
+	 */
+	private RecipeVersion negotiate(final RecipeVersion version, final String view, final NativeWebRequest webRequest)
+			throws HttpMediaTypeNotAcceptableException {
+		final String contentCoding = acceptsGzip(webRequest) ? GZIP : null;
+		for (MediaType acceptedMediaType : contentNegotiationManager.resolveMediaTypes(webRequest))
+			for (MediaType mediaType : JacksonConfig.MEDIA_TYPES)
+				if (acceptedMediaType.isCompatibleWith(mediaType))
+					return version.forRepresentation(view, mediaType, contentCoding);
+		return version.forRepresentation(view, MediaType.APPLICATION_JSON, contentCoding);
+	}
+
+	/**
+	 * Tells whether the body may be gzipped, which Tomcat does for the requests naming gzip in Accept-Encoding.
+	 */
+	private boolean acceptsGzip(final NativeWebRequest webRequest) {
+		final String[] acceptEncodings = webRequest.getHeaderValues(HttpHeaders.ACCEPT_ENCODING);
+		return compressionEnabled && acceptEncodings != null && Arrays.stream(acceptEncodings)
+				.flatMap(acceptEncoding -> Arrays.stream(acceptEncoding.split(",")))
+				.anyMatch(contentCoding -> GZIP.equalsIgnoreCase(contentCoding.split(";")[0].trim()));
+	}
 }
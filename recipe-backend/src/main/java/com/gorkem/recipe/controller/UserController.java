@@ -1,5 +1,6 @@
 package com.gorkem.recipe.controller;
 
+import javax.servlet.http.HttpServletRequest;
 import javax.validation.Valid;
 
 import org.springframework.http.HttpStatus;
@@ -40,10 +41,13 @@ public class UserController {
 	@Operation(summary = "Registers user with given credentials.")
     @ApiResponses(value = {
             @ApiResponse(responseCode = "201", description = "Registers the user and returns the information message."),
-            @ApiResponse(responseCode = "409", description = "Username or email is already in use.")
+            @ApiResponse(responseCode = "409", description = "Username or email is already in use."),
+            @ApiResponse(responseCode = "429", description = "Too many attempts from the client address."),
+            @ApiResponse(responseCode = "503", description = "Too many authentications in progress.")
     })
-	public ResponseEntity<MessageResponse> registerUser(@Valid @RequestBody SignUpRequest signUpRequest) {
-		userService.registerUser(signUpRequest);
+	public ResponseEntity<MessageResponse> registerUser(@Valid @RequestBody SignUpRequest signUpRequest,
+			HttpServletRequest request) {
+		userService.registerUser(signUpRequest, request.getRemoteAddr());
 		return ResponseEntity.status(HttpStatus.CREATED).body(new MessageResponse("User registered successfully!"));
 	}
 	
@@ -51,10 +55,13 @@ public class UserController {
 	@Operation(summary = "Authenticates user with given credentials.")
 	@ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "Authenticates the user and returns jwt token."),
-            @ApiResponse(responseCode = "400", description = "Invalid credentials.")
+            @ApiResponse(responseCode = "400", description = "Invalid credentials."),
+            @ApiResponse(responseCode = "429", description = "Too many attempts for the user or from the client address."),
+            @ApiResponse(responseCode = "503", description = "Too many authentications in progress.")
     })
-	public ResponseEntity<JwtResponse> authenticateUser(@Valid @RequestBody SignInRequest signInRequest) {
-		final String jwt = userService.authenticateUser(signInRequest);
+	public ResponseEntity<JwtResponse> authenticateUser(@Valid @RequestBody SignInRequest signInRequest,
+			HttpServletRequest request) {
+		final String jwt = userService.authenticateUser(signInRequest, request.getRemoteAddr());
 		return ResponseEntity.status(HttpStatus.OK).body(new JwtResponse(jwt, "User is authenticated!"));
 	}
 
@@ -0,0 +1,47 @@
+package com.gorkem.recipe.event;
+
+import java.util.Collection;
+import java.util.Collections;
+
+import com.gorkem.recipe.model.Recipe;
+
+import lombok.Data;
+
+/**
+ * Published by the recipe service after recipes are created, updated or deleted. The saved recipes of an event are
+ * either all created or all updated. Listeners that keep a copy of the recipes (like the search index) should handle
+ * it after the transaction commits.
+ * 
+ * @author gorkemdemiray
+ */
+@Data
+public class RecipeChangedEvent {
+
+	private final Collection<Recipe> savedRecipes;
+	private final Collection<Long> deletedIds;
+	private final boolean created;
+
+	public static RecipeChangedEvent created(Collection<Recipe> recipes) {
+		return new RecipeChangedEvent(recipes, Collections.emptyList(), true);
+	}
+
+	public static RecipeChangedEvent created(Recipe recipe) {
+		return created(Collections.singletonList(recipe));
+	}
+
+	public static RecipeChangedEvent saved(Collection<Recipe> recipes) {
+		return new RecipeChangedEvent(recipes, Collections.emptyList(), false);
+	}
+
+	public static RecipeChangedEvent saved(Recipe recipe) {
+		return saved(Collections.singletonList(recipe));
+	}
+
+	public static RecipeChangedEvent deleted(Collection<Long> ids) {
+		return new RecipeChangedEvent(Collections.emptyList(), ids, false);
+	}
+
+	public static RecipeChangedEvent deleted(Long id) {
+		return deleted(Collections.singletonList(id));
+	}
+}
@@ -0,0 +1,8 @@
+package com.gorkem.recipe.exception;
+
+public class AuthenticationBusyException extends RuntimeException {
+
+    public AuthenticationBusyException(String message) {
+        super(message);
+    }
+}
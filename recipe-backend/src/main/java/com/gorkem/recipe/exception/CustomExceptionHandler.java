@@ -1,9 +1,18 @@
 package com.gorkem.recipe.exception;
 
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.authentication.InternalAuthenticationServiceException;
+import org.springframework.transaction.CannotCreateTransactionException;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 
@@ -11,6 +20,7 @@ import io.jsonwebtoken.ExpiredJwtException;
 import io.jsonwebtoken.MalformedJwtException;
 import io.jsonwebtoken.SignatureException;
 import io.jsonwebtoken.UnsupportedJwtException;
+import io.micrometer.core.instrument.MeterRegistry;
 
 /**
  * Handles specified exceptions and returns human readable responses
@@ -20,27 +30,119 @@ import io.jsonwebtoken.UnsupportedJwtException;
 @ControllerAdvice
 public class CustomExceptionHandler {
 
+	public static final String EXCEPTIONS = "recipe.exceptions";
+	/**
+	 * Unique indexes behind the name, username and email checks of the services.
+	 */
+	private static final List<String> UNIQUE_INDEXES = Arrays.asList("uk_recipe_name", "uk_user_username",
+			"uk_user_email");
+	
+	private final MeterRegistry meterRegistry;
+	
+	public CustomExceptionHandler(MeterRegistry meterRegistry) {
+		this.meterRegistry = meterRegistry;
+	}
+
 	@ExceptionHandler({ NoRecipesFoundException.class, RecipeNotFoundException.class, UserNotFoundException.class })
 	public ResponseEntity<ErrorResponse> handleNotFoundException(final Exception exception) {
-		ErrorResponse response = new ErrorResponse(exception.getMessage(), HttpStatus.NOT_FOUND);
+		ErrorResponse response = createResponse(exception, exception.getMessage(), HttpStatus.NOT_FOUND);
+		return new ResponseEntity<>(response, response.getStatus());
+	}
+
+	@ExceptionHandler({ InvalidCursorException.class, InvalidSearchException.class, BulkLimitExceededException.class,
+			InvalidPatchException.class })
+	public ResponseEntity<ErrorResponse> handleBadRequestException(final Exception exception) {
+		ErrorResponse response = createResponse(exception, exception.getMessage(), HttpStatus.BAD_REQUEST);
+		return new ResponseEntity<>(response, response.getStatus());
+	}
+
+	@ExceptionHandler(ChangesExpiredException.class)
+	public ResponseEntity<ErrorResponse> handleGoneException(final ChangesExpiredException exception) {
+		ErrorResponse response = createResponse(exception, exception.getMessage(), HttpStatus.GONE);
 		return new ResponseEntity<>(response, response.getStatus());
 	}
 
-	@ExceptionHandler({ RecipeAlreadyExistsException.class, UserAlreadyExistsException.class })
+	@ExceptionHandler({ RecipeAlreadyExistsException.class, UserAlreadyExistsException.class,
+			OptimisticLockingFailureException.class })
 	public ResponseEntity<ErrorResponse> handleAlreadyExistsException(final Exception exception) {
-		ErrorResponse response = new ErrorResponse(exception.getMessage(), HttpStatus.CONFLICT);
+		ErrorResponse response = createResponse(exception, exception.getMessage(), HttpStatus.CONFLICT);
+		return new ResponseEntity<>(response, response.getStatus());
+	}
+
+	/**
+	 * A unique index rejected a recipe name, username or email that was taken by a concurrent request after the checks
+	 * of the services. Any other violated constraint is not a conflict with an existing recipe or user.
+	 */
+	@ExceptionHandler(DataIntegrityViolationException.class)
+	public ResponseEntity<ErrorResponse> handleDataIntegrityViolationException(final DataIntegrityViolationException exception) {
+		final String constraintName = getConstraintName(exception);
+		ErrorResponse response = UNIQUE_INDEXES.stream().anyMatch(constraintName::contains)
+				? createResponse(exception, "Recipe or user already exists!", HttpStatus.CONFLICT)
+				: createResponse(exception, "Request violates a data constraint!", HttpStatus.BAD_REQUEST);
 		return new ResponseEntity<>(response, response.getStatus());
 	}
 	
+	@ExceptionHandler(RecipeModifiedException.class)
+	public ResponseEntity<ErrorResponse> handlePreconditionFailedException(final Exception exception) {
+		ErrorResponse response = createResponse(exception, exception.getMessage(), HttpStatus.PRECONDITION_FAILED);
+		return new ResponseEntity<>(response, response.getStatus());
+	}
+	
+	@ExceptionHandler(CannotCreateTransactionException.class)
+	public ResponseEntity<ErrorResponse> handleServiceUnavailableException(final Exception exception) {
+		ErrorResponse response = createResponse(exception, "No database connection is available, try again later",
+				HttpStatus.SERVICE_UNAVAILABLE);
+		return ResponseEntity.status(response.getStatus()).header(HttpHeaders.RETRY_AFTER, "1").body(response);
+	}
+	
+	@ExceptionHandler(AuthenticationBusyException.class)
+	public ResponseEntity<ErrorResponse> handleAuthenticationBusyException(final Exception exception) {
+		ErrorResponse response = createResponse(exception, exception.getMessage(), HttpStatus.SERVICE_UNAVAILABLE);
+		return ResponseEntity.status(response.getStatus()).header(HttpHeaders.RETRY_AFTER, "1").body(response);
+	}
+	
+	@ExceptionHandler(TooManyAttemptsException.class)
+	public ResponseEntity<ErrorResponse> handleTooManyRequestsException(final TooManyAttemptsException exception) {
+		ErrorResponse response = createResponse(exception, exception.getMessage(), HttpStatus.TOO_MANY_REQUESTS);
+		return ResponseEntity.status(response.getStatus())
+				.header(HttpHeaders.RETRY_AFTER, String.valueOf(exception.getRetryAfterSeconds())).body(response);
+	}
+	
 	@ExceptionHandler({ BadCredentialsException.class, InternalAuthenticationServiceException.class })
 	public ResponseEntity<ErrorResponse> handleUnauthorizedException(final Exception exception) {
-		ErrorResponse response = new ErrorResponse(exception.getMessage(), HttpStatus.UNAUTHORIZED);
+		ErrorResponse response = createResponse(exception, exception.getMessage(), HttpStatus.UNAUTHORIZED);
 		return new ResponseEntity<>(response, response.getStatus());
 	}
 	
 	@ExceptionHandler({ ExpiredJwtException.class, MalformedJwtException.class, SignatureException.class, UnsupportedJwtException.class })
 	public ResponseEntity<ErrorResponse> handleJwtException(final Exception exception) {
-		ErrorResponse response = new ErrorResponse(exception.getMessage(), HttpStatus.FORBIDDEN);
+		ErrorResponse response = createResponse(exception, exception.getMessage(), HttpStatus.FORBIDDEN);
 		return new ResponseEntity<>(response, response.getStatus());
 	}
+	
+	/**
+	 * Returns the lower case name of the violated constraint, as the dialect extracted it from the database message or
+	 * the message itself if it could not. Databases qualify the name differently, like recipe.uk_recipe_name on mysql
+	 * and "PUBLIC.UK_RECIPE_NAME_INDEX_8 on h2.
+	 */
+	private static String getConstraintName(final DataIntegrityViolationException exception) {
+		for (Throwable cause = exception.getCause(); cause != null; cause = cause.getCause()) {
+			if (cause instanceof ConstraintViolationException) {
+				ConstraintViolationException violation = (ConstraintViolationException) cause;
+				String constraintName = violation.getConstraintName() != null ? violation.getConstraintName()
+						: violation.getSQLException().getMessage();
+				return constraintName.toLowerCase(Locale.ROOT);
+			}
+		}
+		return "";
+	}
+	
+	/**
+	 * Counts the handled exception by its type and response status before building the response.
+	 */
+	private ErrorResponse createResponse(final Exception exception, final String message, final HttpStatus status) {
+		meterRegistry.counter(EXCEPTIONS, "exception", exception.getClass().getSimpleName(), "status",
+				String.valueOf(status.value())).increment();
+		return new ErrorResponse(message, status);
+	}
 }
@@ -0,0 +1,8 @@
+package com.gorkem.recipe.exception;
+
+public class RecipeModifiedException extends RuntimeException {
+
+    public RecipeModifiedException(String message) {
+        super(message);
+    }
+}
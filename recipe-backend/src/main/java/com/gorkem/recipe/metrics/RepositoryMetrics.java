@@ -0,0 +1,114 @@
+package com.gorkem.recipe.metrics;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import javax.sql.DataSource;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.data.repository.Repository;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import net.ttddyy.dsproxy.ExecutionInfo;
+import net.ttddyy.dsproxy.QueryInfo;
+import net.ttddyy.dsproxy.listener.QueryExecutionListener;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+
+/**
+ * Records the query count, the query time and the connection acquisition time of each repository method. An aspect
+ * marks the repository method running on the current thread, and the jdbc proxy of the data source reports every
+ * statement execution and connection acquisition to it. Work outside a repository method, like the start of a
+ * service transaction, is tagged with none.
+ *
+ * @author gorkemdemiray
+ */
+@Aspect
+@Component
+public class RepositoryMetrics implements QueryExecutionListener {
+
+	public static final String QUERIES = "recipe.repository.queries";
+	public static final String QUERY_TIME = "recipe.repository.query.time";
+	public static final String CONNECTION_ACQUIRE_TIME = "recipe.repository.connection.acquire";
+
+	private static final Tags NONE = Tags.of("repository", "none", "method", "none");
+
+	private final ThreadLocal<Tags> currentMethod = new ThreadLocal<>();
+	private final ThreadLocal<Long> queryStart = new ThreadLocal<>();
+	private final Map<Class<?>, String> repositoryNames = new ConcurrentHashMap<>();
+	private final MeterRegistry meterRegistry;
+
+	public RepositoryMetrics(MeterRegistry meterRegistry) {
+		this.meterRegistry = meterRegistry;
+	}
+
+	@Around("execution(* org.springframework.data.repository.Repository+.*(..))")
+	public Object trackRepositoryMethod(final ProceedingJoinPoint joinPoint) throws Throwable {
+		// a repository calling another one is counted for the outer method
+		if (currentMethod.get() != null)
+			return joinPoint.proceed();
+		currentMethod.set(Tags.of("repository", getRepositoryName(joinPoint.getTarget()), "method",
+				joinPoint.getSignature().getName()));
+		try {
+			return joinPoint.proceed();
+		} finally {
+			currentMethod.remove();
+		}
+	}
+
+	/**
+	 * Wraps the data source with a jdbc proxy reporting to this class.
+	 */
+	public DataSource instrument(final DataSource dataSource) {
+		final DataSource proxy = ProxyDataSourceBuilder.create(dataSource).listener(this).build();
+		return new DelegatingDataSource(proxy) {
+			@Override
+			public Connection getConnection() throws SQLException {
+				final long start = System.nanoTime();
+				try {
+					return super.getConnection();
+				} finally {
+					Timer.builder(CONNECTION_ACQUIRE_TIME).tags(getCurrentMethod()).register(meterRegistry)
+							.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+				}
+			}
+		};
+	}
+
+	@Override
+	public void beforeQuery(final ExecutionInfo execInfo, final List<QueryInfo> queryInfoList) {
+		queryStart.set(System.nanoTime());
+	}
+
+	/**
+	 * Counts every statement execution, so a jdbc batch counts once however many rows it writes.
+	 */
+	@Override
+	public void afterQuery(final ExecutionInfo execInfo, final List<QueryInfo> queryInfoList) {
+		final long elapsed = System.nanoTime() - queryStart.get();
+		queryStart.remove();
+		final Tags tags = getCurrentMethod();
+		meterRegistry.counter(QUERIES, tags).increment();
+		Timer.builder(QUERY_TIME).tags(tags).register(meterRegistry).record(elapsed, TimeUnit.NANOSECONDS);
+	}
+
+	private Tags getCurrentMethod() {
+		final Tags tags = currentMethod.get();
+		return tags == null ? NONE : tags;
+	}
+
+	private String getRepositoryName(final Object repository) {
+		return repositoryNames.computeIfAbsent(repository.getClass(), type -> Arrays.stream(type.getInterfaces())
+				.filter(Repository.class::isAssignableFrom).findFirst().orElse(type).getSimpleName());
+	}
+}
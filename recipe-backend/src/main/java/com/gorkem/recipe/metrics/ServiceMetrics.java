@@ -0,0 +1,49 @@
+package com.gorkem.recipe.metrics;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Times every public method of the services with a percentile histogram, tagged with the service, the method and
+ * the exception it ended with. A service method calling another method of the same service is timed once.
+ *
+ * @author gorkemdemiray
+ */
+@Aspect
+@Component
+public class ServiceMetrics {
+
+	public static final String SERVICE_METHOD_TIME = "recipe.service.method";
+
+	private static final String NONE = "none";
+
+	private final MeterRegistry meterRegistry;
+
+	public ServiceMetrics(MeterRegistry meterRegistry) {
+		this.meterRegistry = meterRegistry;
+	}
+
+	@Around("@within(org.springframework.stereotype.Service) && execution(public * *(..))")
+	public Object timeServiceMethod(final ProceedingJoinPoint joinPoint) throws Throwable {
+		final Timer.Sample sample = Timer.start(meterRegistry);
+		String exception = NONE;
+		try {
+			return joinPoint.proceed();
+		} catch (Throwable ex) {
+			exception = ex.getClass().getSimpleName();
+			throw ex;
+		} finally {
+			sample.stop(Timer.builder(SERVICE_METHOD_TIME)
+					.tag("service", joinPoint.getSignature().getDeclaringType().getSimpleName())
+					.tag("method", joinPoint.getSignature().getName())
+					.tag("exception", exception)
+					.publishPercentileHistogram()
+					.register(meterRegistry));
+		}
+	}
+}
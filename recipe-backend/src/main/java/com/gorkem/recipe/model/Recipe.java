@@ -1,5 +1,6 @@
 package com.gorkem.recipe.model;
 
+import java.io.Serializable;
 import java.time.LocalDateTime;
 import java.util.List;
 
@@ -7,17 +8,33 @@ import javax.persistence.CascadeType;
 import javax.persistence.Column;
 import javax.persistence.Entity;
 import javax.persistence.FetchType;
+import javax.persistence.ForeignKey;
 import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
 import javax.persistence.Id;
+import javax.persistence.Index;
+import javax.persistence.JoinColumn;
 import javax.persistence.OneToMany;
+import javax.persistence.PrePersist;
+import javax.persistence.PreUpdate;
+import javax.persistence.SequenceGenerator;
 import javax.persistence.Table;
+import javax.persistence.UniqueConstraint;
+import javax.persistence.Version;
 import javax.validation.constraints.Max;
 import javax.validation.constraints.Min;
 import javax.validation.constraints.NotBlank;
 import javax.validation.constraints.NotEmpty;
 import javax.validation.constraints.NotNull;
 
+import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.DynamicUpdate;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.annotation.JsonProperty.Access;
+import com.gorkem.recipe.util.RecipeUtil;
+
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -29,21 +46,32 @@ import lombok.NoArgsConstructor;
  * @author gorkemdemiray
  */
 @Entity
-@Table
+@Table(indexes = { @Index(name = "idx_recipe_last_modified", columnList = "last_modified, id"),
+		@Index(name = "idx_recipe_creation_time", columnList = "creation_time, id") },
+		uniqueConstraints = @UniqueConstraint(name = "uk_recipe_name", columnNames = "name"))
+@DynamicUpdate
 @Data
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
-public class Recipe {
+public class Recipe implements Serializable {
+
+	private static final long serialVersionUID = -4618734512093547721L;
 
 	@Id
-	@GeneratedValue(strategy = GenerationType.IDENTITY)
+	@GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "recipe_seq")
+	@SequenceGenerator(name = "recipe_seq", sequenceName = "recipe_seq", allocationSize = 50)
 	private Long id;
 	
 	@NotBlank(message = "Recipe name can not be empty!")
 	private String name;
 	
-	private String creationTime;
+	/**
+	 * Kept as a timestamp so recipes can be sorted and filtered by it, and written in the format clients always got.
+	 */
+	@JsonProperty(access = Access.READ_ONLY)
+	@JsonFormat(pattern = RecipeUtil.DATETIME_PATTERN)
+	private LocalDateTime creationTime;
 	
 	@NotNull(message = "Vegetarian field can not be empty!")
 	private Boolean vegetarian;
@@ -52,14 +80,36 @@ public class Recipe {
 	@Max(value = 100, message = "Recipe can not be for more than 100 people!")
 	private Integer servingCapacity;
 	
+	/**
+	 * The recipe id of an ingredient never changes, so it is written in the insert of the ingredient and never updated.
+	 */
 	@NotEmpty(message = "Ingredients can not be empty!")
-	@OneToMany(cascade = CascadeType.ALL, fetch = FetchType.EAGER)
+	@OneToMany(cascade = CascadeType.ALL, fetch = FetchType.LAZY, orphanRemoval = true)
+	@JoinColumn(name = "recipe_id", nullable = false, updatable = false,
+			foreignKey = @ForeignKey(name = "fk_ingredient_recipe"))
+	@BatchSize(size = 50)
 	private List<Ingredient> ingredients;
 	
+	/**
+	 * Kept in sync with the ingredients on every write, so the recipe summaries do not read the ingredient table.
+	 */
+	@JsonProperty(access = Access.READ_ONLY)
+	private Integer ingredientCount;
+	
 	@NotBlank(message = "Cooking instructions can not be empty!")
 	@Column(columnDefinition = "TEXT")
 	private String cookingInstructions;
 	
 	private LocalDateTime lastModified;
 	
+	@Version
+	@Column(columnDefinition = "bigint default 0 not null")
+	private Long version;
+	
+	@PrePersist
+	@PreUpdate
+	void countIngredients() {
+		ingredientCount = ingredients == null ? 0 : ingredients.size();
+	}
+	
 }
@@ -0,0 +1,48 @@
+package com.gorkem.recipe.model;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.Index;
+import javax.persistence.Table;
+
+import org.springframework.data.domain.Persistable;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Tombstone of a deleted recipe, kept for a while so clients syncing changes can remove the recipe too. Tombstones
+ * are only inserted, so they are always new to the repository and saving one does not select it first.
+ * 
+ * @author gorkemdemiray
+ */
+@Entity
+@Table(indexes = @Index(name = "idx_recipe_tombstone_deleted_at", columnList = "deleted_at, recipe_id"))
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class RecipeTombstone implements Serializable, Persistable<Long> {
+
+	private static final long serialVersionUID = 2837460651470316225L;
+
+	@Id
+	private Long recipeId;
+	
+	private LocalDateTime deletedAt;
+
+	@Override
+	public Long getId() {
+		return recipeId;
+	}
+
+	@Override
+	public boolean isNew() {
+		return true;
+	}
+}
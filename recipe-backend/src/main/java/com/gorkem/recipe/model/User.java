@@ -18,7 +18,8 @@ import lombok.NoArgsConstructor;
  * @author gorkemdemiray
  */
 @Entity
-@Table(uniqueConstraints = @UniqueConstraint(columnNames = { "username", "email" }))
+@Table(uniqueConstraints = { @UniqueConstraint(name = "uk_user_username", columnNames = "username"),
+		@UniqueConstraint(name = "uk_user_email", columnNames = "email") })
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
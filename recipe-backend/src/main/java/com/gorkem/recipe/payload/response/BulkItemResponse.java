@@ -0,0 +1,20 @@
+package com.gorkem.recipe.payload.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * Bulk item response. Holds the result of one item of a bulk request by its index in the request, with the http status
+ * the item would have got from the single item endpoint.
+ * 
+ * @author gorkemdemiray
+ */
+@Data
+@AllArgsConstructor
+public class BulkItemResponse {
+
+	private int index;
+	private Long id;
+	private int status;
+	private String message;
+}
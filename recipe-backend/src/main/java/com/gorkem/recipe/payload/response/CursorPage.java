@@ -0,0 +1,30 @@
+package com.gorkem.recipe.payload.response;
+
+import java.io.Serializable;
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Cursor page response. Holds one page of content, the opaque cursor of the next page and its link.
+ * 
+ * @author gorkemdemiray
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CursorPage<T> implements Serializable {
+
+	private static final long serialVersionUID = 6108233215441563452L;
+
+	private List<T> content;
+	private String nextCursor;
+	private String next;
+	
+	public CursorPage(List<T> content, String nextCursor) {
+		this.content = content;
+		this.nextCursor = nextCursor;
+	}
+}
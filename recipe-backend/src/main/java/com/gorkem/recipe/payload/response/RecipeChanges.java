@@ -0,0 +1,26 @@
+package com.gorkem.recipe.payload.response;
+
+import java.util.List;
+
+import com.gorkem.recipe.model.Recipe;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Recipe changes response. Holds the recipes created or modified and the ids of the recipes deleted since the given
+ * token, the token of the next sync and whether there are more changes to fetch right away.
+ * 
+ * @author gorkemdemiray
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RecipeChanges {
+
+	private List<Recipe> recipes;
+	private List<Long> deletedIds;
+	private String nextToken;
+	private boolean more;
+}
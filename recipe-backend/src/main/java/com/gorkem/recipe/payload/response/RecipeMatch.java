@@ -0,0 +1,23 @@
+package com.gorkem.recipe.payload.response;
+
+import java.util.List;
+
+import com.gorkem.recipe.model.Recipe;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Recipe match response. Holds a recipe matching an ingredient query and the ingredients missing to cook it.
+ * 
+ * @author gorkemdemiray
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RecipeMatch {
+
+	private Recipe recipe;
+	private List<String> missingIngredients;
+}
@@ -0,0 +1,34 @@
+package com.gorkem.recipe.payload.response;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Recipe summary response. Holds only the recipe fields a list view shows, read from the recipe table alone. The version
+ * and the last modification time are not shown, they only version the page.
+ * 
+ * @author gorkemdemiray
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RecipeSummary implements Serializable {
+
+	private static final long serialVersionUID = -2905281795612308547L;
+
+	private Long id;
+	private String name;
+	private Boolean vegetarian;
+	private Integer servingCapacity;
+	private Integer ingredientCount;
+	@JsonIgnore
+	private Long version;
+	@JsonIgnore
+	private LocalDateTime lastModified;
+}
@@ -0,0 +1,29 @@
+package com.gorkem.recipe.payload.response;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Search page response. Holds one page of search results ordered by relevance and the link of the next page.
+ * 
+ * @author gorkemdemiray
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SearchPage<T> {
+
+	private List<T> content;
+	private int page;
+	private boolean last;
+	private String next;
+	
+	public SearchPage(List<T> content, int page, boolean last) {
+		this.content = content;
+		this.page = page;
+		this.last = last;
+	}
+}
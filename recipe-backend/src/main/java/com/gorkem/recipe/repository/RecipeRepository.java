@@ -1,9 +1,23 @@
 package com.gorkem.recipe.repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import javax.persistence.QueryHint;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import com.gorkem.recipe.model.Recipe;
+import com.gorkem.recipe.payload.response.RecipeSummary;
 
 /**
  * Recipe repository
@@ -14,4 +28,113 @@ import com.gorkem.recipe.model.Recipe;
 public interface RecipeRepository extends JpaRepository<Recipe, Long> {
 
 	Boolean existsByName(String name);
+	
+	@Query("select r.id as id, r.name as name from Recipe r where r.name in :names")
+	List<RecipeName> findRecipeNamesByNameIn(@Param("names") Collection<String> names);
+	
+	@EntityGraph(attributePaths = "ingredients")
+	Optional<Recipe> findWithIngredientsById(Long id);
+	
+	@Query("select r.id from Recipe r where r.id > :afterId order by r.id")
+	List<Long> findIdsAfter(@Param("afterId") Long afterId, Pageable pageable);
+	
+	@Query("select new com.gorkem.recipe.payload.response.RecipeSummary(r.id, r.name, r.vegetarian, r.servingCapacity, "
+			+ "r.ingredientCount, r.version, r.lastModified) from Recipe r where r.id > :afterId order by r.id")
+	List<RecipeSummary> findSummariesAfter(@Param("afterId") Long afterId, Pageable pageable);
+	
+	@Query("select r.id as id, r.version as version, r.lastModified as lastModified from Recipe r where r.id = :id")
+	Optional<RecipeModification> findModificationById(@Param("id") Long id);
+	
+	@Query("select r.id as id, r.version as version, r.lastModified as lastModified from Recipe r where r.id > :afterId "
+			+ "order by r.id")
+	List<RecipeModification> findModificationsAfter(@Param("afterId") Long afterId, Pageable pageable);
+	
+	@Query("select r.id as id, r.version as version, r.lastModified as lastModified from Recipe r "
+			+ "where r.lastModified < :until "
+			+ "and (r.lastModified > :since or (r.lastModified = :since and r.id > :afterId)) order by r.lastModified, r.id")
+	List<RecipeModification> findModificationsSince(@Param("since") LocalDateTime since, @Param("afterId") Long afterId,
+			@Param("until") LocalDateTime until, Pageable pageable);
+	
+	@Query("select r.id as id, r.creationTime as creationTime, r.version as version, r.lastModified as lastModified "
+			+ "from Recipe r where r.id > :afterId and r.creationTime > :after and r.creationTime < :before "
+			+ "order by r.id")
+	List<RecipeCreation> findCreationsAfter(@Param("afterId") Long afterId, @Param("after") LocalDateTime after,
+			@Param("before") LocalDateTime before, Pageable pageable);
+	
+	@Query("select r.id as id, r.creationTime as creationTime, r.version as version, r.lastModified as lastModified "
+			+ "from Recipe r "
+			+ "where r.creationTime < :before and (r.creationTime > :after or (r.creationTime = :after and r.id > :afterId)) "
+			+ "order by r.creationTime, r.id")
+	List<RecipeCreation> findCreationsSince(@Param("after") LocalDateTime after, @Param("afterId") Long afterId,
+			@Param("before") LocalDateTime before, Pageable pageable);
+	
+	@Query("select new com.gorkem.recipe.payload.response.RecipeSummary(r.id, r.name, r.vegetarian, r.servingCapacity, "
+			+ "r.ingredientCount, r.version, r.lastModified) from Recipe r where r.id in :ids")
+	List<RecipeSummary> findSummariesByIdIn(@Param("ids") Collection<Long> ids);
+	
+	@Query("select count(r) as count, coalesce(sum(r.version), 0) as versionSum, max(r.lastModified) as lastModified "
+			+ "from Recipe r")
+	RecipesModification findModification();
+	
+	@EntityGraph(attributePaths = "ingredients")
+	@QueryHints(@QueryHint(name = org.hibernate.jpa.QueryHints.HINT_PASS_DISTINCT_THROUGH, value = "false"))
+	@Query("select distinct r from Recipe r where r.id in :ids order by r.id")
+	List<Recipe> findAllWithIngredientsByIdIn(@Param("ids") Collection<Long> ids);
+	
+	@EntityGraph(attributePaths = "ingredients")
+	@QueryHints(@QueryHint(name = org.hibernate.jpa.QueryHints.HINT_PASS_DISTINCT_THROUGH, value = "false"))
+	@Query("select distinct r from Recipe r order by r.id")
+	List<Recipe> findAllWithIngredients();
+	
+	/**
+	 * Id and name of a recipe, which is enough to check name uniqueness without loading the recipe.
+	 */
+	interface RecipeName {
+		
+		Long getId();
+		
+		String getName();
+	}
+	
+	/**
+	 * Id, version and last modification time of a recipe, which is enough to tell if a recipe or a page of recipes
+	 * changed.
+	 */
+	interface RecipeModification {
+		
+		Long getId();
+		
+		Long getVersion();
+		
+		LocalDateTime getLastModified();
+	}
+	
+	/**
+	 * Id, creation time, version and last modification time of a recipe, which is enough to page through recipes by
+	 * creation time and to tell if a page changed.
+	 */
+	interface RecipeCreation extends RecipeModification {
+		
+		LocalDateTime getCreationTime();
+	}
+	
+	/**
+	 * Recipe count, the sum of the versions and the last modification time of all recipes.
+	 */
+	interface RecipesModification {
+		
+		Long getCount();
+		
+		Long getVersionSum();
+		
+		LocalDateTime getLastModified();
+	}
+	
+	/**
+	 * Streams all recipes with their ingredients fetched in the same result set. Rows are read from the database in
+	 * chunks of the fetch size, so the caller must consume the stream inside a transaction and close it afterwards.
+	 */
+	@QueryHints(@QueryHint(name = org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE, value = "500"))
+	@Query("select r from Recipe r left join fetch r.ingredients order by r.id")
+	Stream<Recipe> streamAllWithIngredients();
 }
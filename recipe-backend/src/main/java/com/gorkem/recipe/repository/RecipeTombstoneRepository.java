@@ -0,0 +1,31 @@
+package com.gorkem.recipe.repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.gorkem.recipe.model.RecipeTombstone;
+
+/**
+ * Recipe tombstone repository
+ * 
+ * @author gorkemdemiray
+ */
+@Repository
+public interface RecipeTombstoneRepository extends JpaRepository<RecipeTombstone, Long> {
+
+	@Query("select t from RecipeTombstone t where t.deletedAt < :until and (t.deletedAt > :since "
+			+ "or (t.deletedAt = :since and t.recipeId > :afterId)) order by t.deletedAt, t.recipeId")
+	List<RecipeTombstone> findDeletedSince(@Param("since") LocalDateTime since, @Param("afterId") Long afterId,
+			@Param("until") LocalDateTime until, Pageable pageable);
+	
+	@Modifying
+	@Query("delete from RecipeTombstone t where t.deletedAt < :before")
+	int deleteDeletedBefore(@Param("before") LocalDateTime before);
+}
@@ -0,0 +1,190 @@
+package com.gorkem.recipe.search;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.roaringbitmap.longlong.LongIterator;
+import org.roaringbitmap.longlong.Roaring64NavigableMap;
+import org.springframework.stereotype.Component;
+
+import com.gorkem.recipe.model.Ingredient;
+import com.gorkem.recipe.model.Recipe;
+import com.gorkem.recipe.util.RecipeUtil;
+
+/**
+ * In memory ingredient index. Maps each normalized ingredient name to an integer id and keeps a compressed bitmap of
+ * the recipe ids using each ingredient, so ingredient queries are answered with bitmap intersections and unions.
+ *
+ * @author gorkemdemiray
+ */
+@Component
+public class IngredientIndex {
+
+	private final Map<String, Integer> ingredientIds = new HashMap<>();
+	private final List<String> ingredientNames = new ArrayList<>();
+	private final Map<Integer, Roaring64NavigableMap> postings = new HashMap<>();
+	private final Map<Integer, Roaring64NavigableMap> recipesByIngredientCount = new HashMap<>();
+	private final Map<Long, int[]> recipeIngredients = new HashMap<>();
+	private final Roaring64NavigableMap allRecipes = new Roaring64NavigableMap();
+	private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+	/**
+	 * Returns the recipes that use none of the excluded ingredients and either use all included ingredients, or when
+	 * maxMissing is given, need at most that many ingredients besides the included ones. Matches are ordered by the
+	 * number of missing ingredients and then by recipe id.
+	 */
+	public List<IngredientMatch> query(final Collection<String> include, final Collection<String> exclude,
+			final Integer maxMissing, final int offset, final int limit) {
+		lock.readLock().lock();
+		try {
+			final Set<String> includeNames = normalize(include);
+			final Set<Integer> includeIds = toIngredientIds(includeNames);
+			final Roaring64NavigableMap candidates = new Roaring64NavigableMap();
+			if (maxMissing == null) {
+				// a recipe can not use an ingredient no recipe uses
+				if (includeIds.size() < includeNames.size())
+					return new ArrayList<>();
+				candidates.or(allRecipes);
+				includeIds.forEach(id -> candidates.and(postings.get(id)));
+			} else {
+				includeIds.forEach(id -> candidates.or(postings.get(id)));
+				// recipes using none of the included ingredients are still matches if they are small enough
+				recipesByIngredientCount.forEach((count, recipes) -> {
+					if (count <= maxMissing)
+						candidates.or(recipes);
+				});
+			}
+			toIngredientIds(normalize(exclude)).forEach(id -> candidates.andNot(postings.get(id)));
+
+			final List<long[]> matches = new ArrayList<>();
+			final LongIterator iterator = candidates.getLongIterator();
+			while (iterator.hasNext()) {
+				long recipeId = iterator.next();
+				int missing = countMissing(recipeIngredients.get(recipeId), includeIds);
+				if (maxMissing == null || missing <= maxMissing)
+					matches.add(new long[] { missing, recipeId });
+			}
+			return matches.stream()
+					.sorted(Comparator.<long[]>comparingLong(match -> match[0]).thenComparingLong(match -> match[1]))
+					.skip(offset).limit(limit)
+					.map(match -> new IngredientMatch(match[1], getMissingNames(match[1], includeIds)))
+					.collect(Collectors.toList());
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Adds or replaces the saved recipes and removes the deleted ones.
+	 */
+	public void update(final Collection<Recipe> savedRecipes, final Collection<Long> deletedIds) {
+		lock.writeLock().lock();
+		try {
+			for (Recipe recipe : savedRecipes) {
+				remove(recipe.getId());
+				add(recipe);
+			}
+			deletedIds.forEach(this::remove);
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * Replaces the whole index with the given recipes and returns how many recipes were indexed.
+	 */
+	public long rebuild(final Stream<Recipe> recipes) {
+		lock.writeLock().lock();
+		try {
+			ingredientIds.clear();
+			ingredientNames.clear();
+			postings.clear();
+			recipesByIngredientCount.clear();
+			recipeIngredients.clear();
+			allRecipes.clear();
+			recipes.forEach(this::add);
+			return allRecipes.getLongCardinality();
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	public int ingredientCount() {
+		lock.readLock().lock();
+		try {
+			return ingredientNames.size();
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	private void add(final Recipe recipe) {
+		final long recipeId = recipe.getId();
+		final int[] ids = normalize(recipe.getIngredients().stream().map(Ingredient::getName)).stream()
+				.mapToInt(this::getOrCreateIngredientId).toArray();
+		for (int id : ids)
+			postings.get(id).addLong(recipeId);
+		recipesByIngredientCount.computeIfAbsent(ids.length, count -> new Roaring64NavigableMap()).addLong(recipeId);
+		recipeIngredients.put(recipeId, ids);
+		allRecipes.addLong(recipeId);
+	}
+
+	private void remove(final Long recipeId) {
+		final int[] ids = recipeIngredients.remove(recipeId);
+		if (ids == null)
+			return;
+		for (int id : ids)
+			postings.get(id).removeLong(recipeId);
+		recipesByIngredientCount.get(ids.length).removeLong(recipeId);
+		allRecipes.removeLong(recipeId);
+	}
+
+	private int getOrCreateIngredientId(final String name) {
+		return ingredientIds.computeIfAbsent(name, key -> {
+			ingredientNames.add(key);
+			postings.put(ingredientNames.size() - 1, new Roaring64NavigableMap());
+			return ingredientNames.size() - 1;
+		});
+	}
+
+	private Set<Integer> toIngredientIds(final Set<String> names) {
+		return names.stream().map(ingredientIds::get).filter(id -> id != null).collect(Collectors.toSet());
+	}
+
+	private int countMissing(final int[] ids, final Set<Integer> includeIds) {
+		int missing = 0;
+		for (int id : ids) {
+			if (!includeIds.contains(id))
+				missing++;
+		}
+		return missing;
+	}
+
+	private List<String> getMissingNames(final long recipeId, final Set<Integer> includeIds) {
+		final List<String> names = new ArrayList<>();
+		for (int id : recipeIngredients.get(recipeId)) {
+			if (!includeIds.contains(id))
+				names.add(ingredientNames.get(id));
+		}
+		return names;
+	}
+
+	private static Set<String> normalize(final Collection<String> names) {
+		return names == null ? new LinkedHashSet<>() : normalize(names.stream());
+	}
+
+	private static Set<String> normalize(final Stream<String> names) {
+		return names.filter(name -> name != null).map(RecipeUtil::normalizeIngredientName)
+				.filter(name -> !name.isEmpty()).collect(Collectors.toCollection(LinkedHashSet::new));
+	}
+}
@@ -0,0 +1,18 @@
+package com.gorkem.recipe.search;
+
+import java.util.List;
+
+import lombok.Data;
+
+/**
+ * A recipe matching an ingredient query with the normalized names of the ingredients it needs besides the included
+ * ones.
+ *
+ * @author gorkemdemiray
+ */
+@Data
+public class IngredientMatch {
+
+	private final long recipeId;
+	private final List<String> missingIngredients;
+}
@@ -0,0 +1,182 @@
+package com.gorkem.recipe.search;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import javax.annotation.PreDestroy;
+
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.en.EnglishAnalyzer;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field.Store;
+import org.apache.lucene.document.IntPoint;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.document.TextField;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.queryparser.simple.SimpleQueryParser;
+import org.apache.lucene.search.BooleanClause.Occur;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.MatchAllDocsQuery;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.SearcherManager;
+import org.apache.lucene.search.TermQuery;
+import org.apache.lucene.search.TopDocs;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.FSDirectory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.gorkem.recipe.model.Ingredient;
+import com.gorkem.recipe.model.Recipe;
+
+/**
+ * Embedded lucene index of recipes. Holds the searchable fields of each recipe and returns the ids of the matching
+ * recipes by relevance; the recipes themselves are loaded from the database.
+ *
+ * @author gorkemdemiray
+ */
+@Component
+public class RecipeSearchIndex {
+
+	private static final String ID = "id";
+	private static final String NAME = "name";
+	private static final String INGREDIENTS = "ingredients";
+	private static final String COOKING_INSTRUCTIONS = "cookingInstructions";
+	private static final String VEGETARIAN = "vegetarian";
+	private static final String SERVING_CAPACITY = "servingCapacity";
+
+	private static final Map<String, Float> FIELD_WEIGHTS = new HashMap<>();
+
+	static {
+		FIELD_WEIGHTS.put(NAME, 3f);
+		FIELD_WEIGHTS.put(INGREDIENTS, 2f);
+		FIELD_WEIGHTS.put(COOKING_INSTRUCTIONS, 1f);
+	}
+
+	private final Analyzer analyzer = new EnglishAnalyzer();
+	private final IndexWriter indexWriter;
+	private final SearcherManager searcherManager;
+
+	@Autowired
+	public RecipeSearchIndex(@Value("${recipe.app.searchIndexDirectory}") String directory) throws IOException {
+		this(FSDirectory.open(Paths.get(directory)));
+	}
+
+	public RecipeSearchIndex(Directory directory) throws IOException {
+		this.indexWriter = new IndexWriter(directory, new IndexWriterConfig(analyzer));
+		this.searcherManager = new SearcherManager(indexWriter, null);
+	}
+
+	/**
+	 * Returns ids of the recipes matching the text and the filters, ordered by relevance. Blank text matches all
+	 * recipes and null filters are ignored.
+	 */
+	public List<Long> search(final String text, final Boolean vegetarian, final Integer minServingCapacity,
+			final Integer maxServingCapacity, final int offset, final int limit) throws IOException {
+		final Query query = buildQuery(text, vegetarian, minServingCapacity, maxServingCapacity);
+		final IndexSearcher searcher = searcherManager.acquire();
+		try {
+			final TopDocs topDocs = searcher.search(query, offset + limit);
+			final List<Long> ids = new ArrayList<>(limit);
+			for (int i = offset; i < topDocs.scoreDocs.length; i++) {
+				ScoreDoc scoreDoc = topDocs.scoreDocs[i];
+				ids.add(Long.valueOf(searcher.doc(scoreDoc.doc).get(ID)));
+			}
+			return ids;
+		} finally {
+			searcherManager.release(searcher);
+		}
+	}
+
+	/**
+	 * Adds or replaces the saved recipes, removes the deleted ones and makes the changes durable and searchable.
+	 */
+	public void update(final Collection<Recipe> savedRecipes, final Collection<Long> deletedIds) throws IOException {
+		for (Recipe recipe : savedRecipes)
+			indexWriter.updateDocument(idTerm(recipe.getId()), toDocument(recipe));
+		if (!deletedIds.isEmpty())
+			indexWriter.deleteDocuments(deletedIds.stream().map(RecipeSearchIndex::idTerm).toArray(Term[]::new));
+		commit();
+	}
+
+	/**
+	 * Replaces the whole index with the given recipes and returns how many recipes were indexed.
+	 */
+	public long rebuild(final Stream<Recipe> recipes) throws IOException {
+		indexWriter.deleteAll();
+		long count = 0;
+		for (Recipe recipe : (Iterable<Recipe>) recipes::iterator) {
+			indexWriter.addDocument(toDocument(recipe));
+			count++;
+		}
+		commit();
+		return count;
+	}
+
+	public long count() {
+		return indexWriter.getDocStats().numDocs;
+	}
+
+	@PreDestroy
+	public void close() throws IOException {
+		searcherManager.close();
+		indexWriter.close();
+	}
+
+	private void commit() throws IOException {
+		indexWriter.commit();
+		searcherManager.maybeRefreshBlocking();
+	}
+
+	private Query buildQuery(final String text, final Boolean vegetarian, final Integer minServingCapacity,
+			final Integer maxServingCapacity) {
+		final BooleanQuery.Builder builder = new BooleanQuery.Builder();
+		if (text == null || text.trim().isEmpty()) {
+			builder.add(new MatchAllDocsQuery(), Occur.MUST);
+		} else {
+			SimpleQueryParser queryParser = new SimpleQueryParser(analyzer, FIELD_WEIGHTS);
+			queryParser.setDefaultOperator(Occur.MUST);
+			builder.add(queryParser.parse(text), Occur.MUST);
+		}
+		if (vegetarian != null)
+			builder.add(new TermQuery(new Term(VEGETARIAN, vegetarian.toString())), Occur.FILTER);
+		if (minServingCapacity != null || maxServingCapacity != null)
+			builder.add(IntPoint.newRangeQuery(SERVING_CAPACITY,
+					minServingCapacity == null ? Integer.MIN_VALUE : minServingCapacity,
+					maxServingCapacity == null ? Integer.MAX_VALUE : maxServingCapacity), Occur.FILTER);
+		return builder.build();
+	}
+
+	private static Document toDocument(final Recipe recipe) {
+		final Document document = new Document();
+		document.add(new StringField(ID, recipe.getId().toString(), Store.YES));
+		if (recipe.getName() != null)
+			document.add(new TextField(NAME, recipe.getName(), Store.NO));
+		if (recipe.getCookingInstructions() != null)
+			document.add(new TextField(COOKING_INSTRUCTIONS, recipe.getCookingInstructions(), Store.NO));
+		for (Ingredient ingredient : recipe.getIngredients()) {
+			if (ingredient.getName() != null)
+				document.add(new TextField(INGREDIENTS, ingredient.getName(), Store.NO));
+		}
+		if (recipe.getVegetarian() != null)
+			document.add(new StringField(VEGETARIAN, recipe.getVegetarian().toString(), Store.NO));
+		if (recipe.getServingCapacity() != null)
+			document.add(new IntPoint(SERVING_CAPACITY, recipe.getServingCapacity()));
+		return document;
+	}
+
+	private static Term idTerm(final Long id) {
+		return new Term(ID, id.toString());
+	}
+}
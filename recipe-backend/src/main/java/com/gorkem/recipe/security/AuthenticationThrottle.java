@@ -0,0 +1,64 @@
+package com.gorkem.recipe.security;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.gorkem.recipe.exception.TooManyAttemptsException;
+
+/**
+ * Limits the sign in attempts of each user name and the authentication attempts of each client address with token
+ * buckets, so a credential stuffing wave is rejected before it reaches the password hashing pool. A bucket that is
+ * not used for a whole period is full again, so it is dropped and created again on the next attempt.
+ *
+ * @author gorkemdemiray
+ */
+@Component
+public class AuthenticationThrottle {
+
+	private static final long MAX_TRACKED_KEYS = 100000;
+
+	private final long attemptsPerUser;
+	private final long attemptsPerAddress;
+	private final long periodMs;
+	private final Cache<String, TokenBucket> userBuckets;
+	private final Cache<String, TokenBucket> addressBuckets;
+
+	public AuthenticationThrottle(@Value("${recipe.app.authAttemptsPerUser}") long attemptsPerUser,
+			@Value("${recipe.app.authAttemptsPerAddress}") long attemptsPerAddress,
+			@Value("${recipe.app.authThrottlePeriodMs}") long periodMs) {
+		this.attemptsPerUser = attemptsPerUser;
+		this.attemptsPerAddress = attemptsPerAddress;
+		this.periodMs = periodMs;
+		this.userBuckets = createBuckets(periodMs);
+		this.addressBuckets = createBuckets(periodMs);
+	}
+
+	public void checkSignIn(final String username, final String address) {
+		checkAddress(address);
+		check(userBuckets.get(username, key -> new TokenBucket(attemptsPerUser, periodMs)),
+				String.format("Too many sign in attempts for user: %s", username));
+	}
+
+	public void checkAddress(final String address) {
+		check(addressBuckets.get(address, key -> new TokenBucket(attemptsPerAddress, periodMs)),
+				String.format("Too many authentication attempts from address: %s", address));
+	}
+
+	private void check(final TokenBucket bucket, final String message) {
+		final long wait = bucket.tryConsume();
+		if (wait > 0)
+			throw new TooManyAttemptsException(message, Math.max(TimeUnit.NANOSECONDS.toSeconds(wait), 1));
+	}
+
+	private static Cache<String, TokenBucket> createBuckets(final long periodMs) {
+		return Caffeine.newBuilder()
+				.maximumSize(MAX_TRACKED_KEYS)
+				.expireAfterAccess(Duration.ofMillis(periodMs))
+				.build();
+	}
+}
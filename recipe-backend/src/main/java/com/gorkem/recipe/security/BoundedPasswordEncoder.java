@@ -0,0 +1,72 @@
+package com.gorkem.recipe.security;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import com.gorkem.recipe.exception.AuthenticationBusyException;
+
+/**
+ * Password encoder that hashes and verifies passwords on a dedicated bounded pool instead of the request thread. The
+ * pool caps the cpu that authentication can take from the rest of the api, and an attempt is rejected at once when
+ * the queue of the pool is full instead of waiting behind the others.
+ *
+ * @author gorkemdemiray
+ */
+public class BoundedPasswordEncoder implements PasswordEncoder, DisposableBean {
+
+	private final PasswordEncoder delegate;
+	private final ExecutorService executor;
+
+	public BoundedPasswordEncoder(PasswordEncoder delegate, ExecutorService executor) {
+		this.delegate = delegate;
+		this.executor = executor;
+	}
+
+	@Override
+	public String encode(final CharSequence rawPassword) {
+		return execute(() -> delegate.encode(rawPassword));
+	}
+
+	@Override
+	public boolean matches(final CharSequence rawPassword, final String encodedPassword) {
+		return execute(() -> delegate.matches(rawPassword, encodedPassword));
+	}
+
+	@Override
+	public boolean upgradeEncoding(final String encodedPassword) {
+		return delegate.upgradeEncoding(encodedPassword);
+	}
+
+	@Override
+	public void destroy() {
+		executor.shutdown();
+	}
+
+	private <T> T execute(final Callable<T> task) {
+		final Future<T> future;
+		try {
+			future = executor.submit(task);
+		} catch (RejectedExecutionException ex) {
+			throw new AuthenticationBusyException("Too many authentications in progress, try again later");
+		}
+		try {
+			return future.get();
+		} catch (InterruptedException ex) {
+			future.cancel(true);
+			Thread.currentThread().interrupt();
+			throw new AuthenticationBusyException("Authentication is interrupted");
+		} catch (ExecutionException ex) {
+			if (ex.getCause() instanceof RuntimeException)
+				throw (RuntimeException) ex.getCause();
+			if (ex.getCause() instanceof Error)
+				throw (Error) ex.getCause();
+			throw new IllegalStateException(ex.getCause());
+		}
+	}
+}
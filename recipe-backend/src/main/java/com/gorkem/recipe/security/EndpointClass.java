@@ -0,0 +1,22 @@
+package com.gorkem.recipe.security;
+
+/**
+ * Classes of recipe endpoints for rate limiting, with the number of tokens a request of each class costs. The cost
+ * follows the database work of the class, so a client can read many recipes by id for the cost of one export.
+ *
+ * @author gorkemdemiray
+ */
+public enum EndpointClass {
+	
+	READ(1), WRITE(2), SEARCH(5), LIST(10), BULK(50), EXPORT(100);
+	
+	private final long cost;
+	
+	EndpointClass(long cost) {
+		this.cost = cost;
+	}
+	
+	public long getCost() {
+		return cost;
+	}
+}
@@ -7,13 +7,16 @@ import javax.servlet.ServletException;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UserCache;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
+import com.gorkem.recipe.service.UserDetailsImpl;
 import com.gorkem.recipe.service.UserDetailsServiceImpl;
 
 /**
@@ -28,10 +31,15 @@ public class JwtAuthorizationFilter extends OncePerRequestFilter {
 
 	private final JwtUtil jwtUtil;
 	private final UserDetailsServiceImpl userDetailsService;
+	private final UserCache userCache;
+	
+	@Value("${recipe.app.principalMode}")
+	private PrincipalMode principalMode;
 
-	public JwtAuthorizationFilter(JwtUtil jwtUtil, UserDetailsServiceImpl userDetailsService) {
+	public JwtAuthorizationFilter(JwtUtil jwtUtil, UserDetailsServiceImpl userDetailsService, UserCache userCache) {
 		this.jwtUtil = jwtUtil;
 		this.userDetailsService = userDetailsService;
+		this.userCache = userCache;
 	}
 
 	@Override
@@ -40,9 +48,9 @@ public class JwtAuthorizationFilter extends OncePerRequestFilter {
 		String jwt = parseJwt(request);
 		try {
 			if (jwt != null) {
-				String username = jwtUtil.getUsernameFromToken(jwt);
-				UserDetails userDetails = userDetailsService.loadUserByUsername(username);
-				if (jwtUtil.validateJwtToken(jwt, userDetails)) {
+				VerifiedToken verifiedToken = jwtUtil.verifyJwtToken(jwt);
+				UserDetails userDetails = loadUserDetails(verifiedToken);
+				if (jwtUtil.validateJwtToken(verifiedToken, userDetails)) {
 					UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(
 							userDetails, null, userDetails.getAuthorities());
 					authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
@@ -59,6 +67,17 @@ public class JwtAuthorizationFilter extends OncePerRequestFilter {
 		filterChain.doFilter(request, response);
 	}
 
+	private UserDetails loadUserDetails(VerifiedToken verifiedToken) {
+		if (principalMode == PrincipalMode.CLAIMS)
+			return UserDetailsImpl.build(verifiedToken.getUsername(), verifiedToken.getEmail());
+		UserDetails userDetails = userCache.getUserFromCache(verifiedToken.getUsername());
+		if (userDetails == null) {
+			userDetails = userDetailsService.loadUserByUsername(verifiedToken.getUsername());
+			userCache.putUserInCache(userDetails);
+		}
+		return userDetails;
+	}
+
 	private String parseJwt(HttpServletRequest request) {
 		String authHeader = request.getHeader(AUTHORIZATION);
 		return jwtUtil.parseJwt(authHeader);
@@ -1,18 +1,28 @@
 package com.gorkem.recipe.security;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
 import java.util.Date;
-import java.util.function.Function;
+import java.util.concurrent.TimeUnit;
 
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import com.gorkem.recipe.service.UserDetailsImpl;
 
 import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
 import lombok.extern.slf4j.Slf4j;
 
 /**
@@ -25,6 +35,9 @@ import lombok.extern.slf4j.Slf4j;
 public class JwtUtil {
 
 	private static final String BEARER = "Bearer ";
+	private static final String EMAIL = "email";
+	private static final String TOKEN_HASH_ALGORITHM = "SHA-256";
+	private static final String VERIFICATION_TIMER = "recipe.jwt.verification";
 
 	@Value("${recipe.app.jwtSecret}")
 	private String jwtSecret;
@@ -32,6 +45,22 @@ public class JwtUtil {
 	@Value("${recipe.app.jwtExpirationMs}")
 	private int jwtExpirationMs;
 	
+	private final Cache<String, VerifiedToken> verifiedTokens;
+	private final Timer cachedVerifications;
+	private final Timer parsedVerifications;
+	private final Timer failedVerifications;
+	
+	public JwtUtil(@Value("${recipe.app.verifiedTokenCacheSize}") long verifiedTokenCacheSize, MeterRegistry meterRegistry) {
+		this.verifiedTokens = CaffeineCacheMetrics.monitor(meterRegistry, Caffeine.newBuilder()
+				.maximumSize(verifiedTokenCacheSize)
+				.expireAfter(new VerifiedTokenExpiry())
+				.recordStats()
+				.<String, VerifiedToken>build(), "verifiedTokens");
+		this.cachedVerifications = verificationTimer("cached", meterRegistry);
+		this.parsedVerifications = verificationTimer("parsed", meterRegistry);
+		this.failedVerifications = verificationTimer("failed", meterRegistry);
+	}
+	
 	public String parseJwt(String authHeader) {
 		if (authHeader != null && authHeader.startsWith(BEARER))
 			return authHeader.substring(BEARER.length(), authHeader.length());
@@ -43,6 +72,7 @@ public class JwtUtil {
 		
 		return Jwts.builder()
 				.setSubject(userPrincipal.getUsername())
+				.claim(EMAIL, userPrincipal.getEmail())
 				.setIssuedAt(new Date(System.currentTimeMillis()))
 				.setExpiration(new Date(System.currentTimeMillis() + jwtExpirationMs))
 				.signWith(SignatureAlgorithm.HS512, jwtSecret)
@@ -58,26 +88,84 @@ public class JwtUtil {
 		}
 	}
 	
-	public <T> T getClaimFromToken(String token, Function<Claims, T> claimsResolver) {
-		final Claims claims = getAllClaimsFromToken(token);
-		return claimsResolver.apply(claims);
+	/**
+	 * Parses the token and verifies its signature and expiration only once. Verified tokens are kept by the hash of
+	 * the token until they expire, so the same token is not parsed again on the following requests.
+	 */
+	public VerifiedToken verifyJwtToken(String authToken) {
+		final long start = System.nanoTime();
+		final String tokenHash = hashToken(authToken);
+		VerifiedToken verifiedToken = verifiedTokens.getIfPresent(tokenHash);
+		if (verifiedToken != null && !verifiedToken.isExpired()) {
+			cachedVerifications.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+			return verifiedToken;
+		}
+		final Claims claims;
+		try {
+			claims = getAllClaimsFromToken(authToken);
+		} catch (RuntimeException ex) {
+			failedVerifications.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+			throw ex;
+		}
+		verifiedToken = new VerifiedToken(claims.getSubject(), claims.get(EMAIL, String.class), claims.getExpiration());
+		verifiedTokens.put(tokenHash, verifiedToken);
+		parsedVerifications.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+		return verifiedToken;
 	}
 	
 	public String getUsernameFromToken(String token) {
-		return getClaimFromToken(token, Claims::getSubject);
+		return verifyJwtToken(token).getUsername();
 	}
-
-	public Date getExpirationDateFromToken(String token) {
-		return getClaimFromToken(token, Claims::getExpiration);
+	
+	public String getEmailFromToken(String token) {
+		return verifyJwtToken(token).getEmail();
 	}
 
-	private boolean isTokenExpired(String token) {
-		final Date expiration = getExpirationDateFromToken(token);
-		return expiration.before(new Date());
+	public Date getExpirationDateFromToken(String token) {
+		return verifyJwtToken(token).getExpiration();
 	}
 	
 	public boolean validateJwtToken(String authToken, UserDetails userDetails) {
-		final String username = getUsernameFromToken(authToken);
-		return (username.equals(userDetails.getUsername()) && !isTokenExpired(authToken));
+		return validateJwtToken(verifyJwtToken(authToken), userDetails);
+	}
+	
+	public boolean validateJwtToken(VerifiedToken verifiedToken, UserDetails userDetails) {
+		return (verifiedToken.getUsername().equals(userDetails.getUsername()) && !verifiedToken.isExpired());
+	}
+	
+	private static Timer verificationTimer(String result, MeterRegistry meterRegistry) {
+		return Timer.builder(VERIFICATION_TIMER)
+				.description("Jwt token verification latency, from the verified token cache or by parsing the token")
+				.tag("result", result)
+				.publishPercentileHistogram()
+				.register(meterRegistry);
+	}
+	
+	private String hashToken(String authToken) {
+		try {
+			MessageDigest messageDigest = MessageDigest.getInstance(TOKEN_HASH_ALGORITHM);
+			return Base64.getEncoder().encodeToString(messageDigest.digest(authToken.getBytes(StandardCharsets.UTF_8)));
+		} catch (NoSuchAlgorithmException ex) {
+			throw new IllegalStateException(ex);
+		}
+	}
+	
+	private static class VerifiedTokenExpiry implements Expiry<String, VerifiedToken> {
+
+		@Override
+		public long expireAfterCreate(String key, VerifiedToken value, long currentTime) {
+			long remainingMs = value.getExpiration().getTime() - System.currentTimeMillis();
+			return TimeUnit.MILLISECONDS.toNanos(Math.max(remainingMs, 0));
+		}
+
+		@Override
+		public long expireAfterUpdate(String key, VerifiedToken value, long currentTime, long currentDuration) {
+			return expireAfterCreate(key, value, currentTime);
+		}
+
+		@Override
+		public long expireAfterRead(String key, VerifiedToken value, long currentTime, long currentDuration) {
+			return currentDuration;
+		}
 	}
 }
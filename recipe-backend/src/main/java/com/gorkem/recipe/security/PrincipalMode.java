@@ -0,0 +1,19 @@
+package com.gorkem.recipe.security;
+
+/**
+ * Modes of building the authenticated principal from a jwt token.
+ * 
+ * @author gorkemdemiray
+ */
+public enum PrincipalMode {
+
+	/**
+	 * Principal is loaded from the database and kept in the principal cache until it expires or the user changes.
+	 */
+	CACHE,
+
+	/**
+	 * Principal is built from the claims of the token without any user lookup.
+	 */
+	CLAIMS
+}
@@ -0,0 +1,117 @@
+package com.gorkem.recipe.security;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Admission control filter for the recipe endpoints. Every request costs the tokens of its endpoint class from the
+ * bucket of its user, which is the jwt subject or the client address without a token, and from the shared bucket
+ * of its endpoint class, so neither a single client nor all clients together can overload the database with
+ * expensive requests. A request without enough tokens is rejected with 429 and the seconds to wait in Retry-After.
+ * The tokens taken from the user bucket are given back when the endpoint class bucket rejects the request.
+ *
+ * @author gorkemdemiray
+ */
+@Component
+public class RateLimitFilter extends OncePerRequestFilter {
+
+	public static final String RATE_LIMITED = "recipe.rate.limited";
+
+	private static final String RECIPES_PATH = "/api/recipes";
+	private static final long MAX_TRACKED_USERS = 100000;
+
+	private final long userCapacity;
+	private final long periodMs;
+	private final Cache<String, TokenBucket> userBuckets;
+	private final Map<EndpointClass, TokenBucket> endpointClassBuckets = new EnumMap<>(EndpointClass.class);
+	private final MeterRegistry meterRegistry;
+
+	public RateLimitFilter(@Value("${recipe.app.rateLimitPerUser}") long userCapacity,
+			@Value("${recipe.app.rateLimitPerEndpointClass}") long endpointClassCapacity,
+			@Value("${recipe.app.rateLimitPeriodMs}") long periodMs, MeterRegistry meterRegistry) {
+		this.userCapacity = userCapacity;
+		this.periodMs = periodMs;
+		this.userBuckets = Caffeine.newBuilder()
+				.maximumSize(MAX_TRACKED_USERS)
+				.expireAfterAccess(Duration.ofMillis(periodMs))
+				.build();
+		for (EndpointClass endpointClass : EndpointClass.values())
+			endpointClassBuckets.put(endpointClass, new TokenBucket(endpointClassCapacity, periodMs));
+		this.meterRegistry = meterRegistry;
+	}
+
+	@Override
+	protected boolean shouldNotFilter(HttpServletRequest request) {
+		return !request.getRequestURI().startsWith(RECIPES_PATH, request.getContextPath().length());
+	}
+
+	@Override
+	protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+			throws ServletException, IOException {
+		final EndpointClass endpointClass = classify(request);
+		final TokenBucket userBucket = userBuckets.get(getUser(request), key -> new TokenBucket(userCapacity, periodMs));
+		long wait = userBucket.tryConsume(endpointClass.getCost());
+		String limit = "user";
+		if (wait == 0) {
+			wait = endpointClassBuckets.get(endpointClass).tryConsume(endpointClass.getCost());
+			limit = "endpoint";
+			// a rejected request costs its user nothing
+			if (wait > 0)
+				userBucket.refund(endpointClass.getCost());
+		}
+		if (wait > 0) {
+			meterRegistry.counter(RATE_LIMITED, "endpoint", endpointClass.name(), "limit", limit).increment();
+			response.setHeader(HttpHeaders.RETRY_AFTER,
+					String.valueOf(Math.max(TimeUnit.NANOSECONDS.toSeconds(wait), 1)));
+			response.sendError(HttpStatus.TOO_MANY_REQUESTS.value(),
+					String.format("Too many %s requests, try again later", endpointClass.name().toLowerCase()));
+			return;
+		}
+		filterChain.doFilter(request, response);
+	}
+
+	private String getUser(HttpServletRequest request) {
+		final Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+		if (authentication != null && !(authentication instanceof AnonymousAuthenticationToken))
+			return authentication.getName();
+		return request.getRemoteAddr();
+	}
+
+	private EndpointClass classify(HttpServletRequest request) {
+		final String path = request.getRequestURI().substring(request.getContextPath().length() + RECIPES_PATH.length());
+		if (!HttpMethod.GET.matches(request.getMethod()))
+			return path.equals("/bulk") ? EndpointClass.BULK : EndpointClass.WRITE;
+		if (path.isEmpty() || path.equals("/"))
+			return Boolean.parseBoolean(request.getParameter("unpaged")) ? EndpointClass.EXPORT : EndpointClass.LIST;
+		if (path.equals("/changes") || path.equals("/stream"))
+			return EndpointClass.LIST;
+		if (path.equals("/export"))
+			return EndpointClass.EXPORT;
+		if (path.equals("/search") || path.equals("/by-ingredients"))
+			return EndpointClass.SEARCH;
+		return EndpointClass.READ;
+	}
+}
@@ -0,0 +1,67 @@
+package com.gorkem.recipe.security;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock free token bucket that admits a burst of capacity tokens and then one token every period / capacity. The
+ * bucket keeps only the time at which it is full again, so taking tokens is a single compare and set.
+ *
+ * @author gorkemdemiray
+ */
+public class TokenBucket {
+
+	private final long capacity;
+	private final long nanosPerToken;
+	private final long burstNanos;
+	private final AtomicLong fullAt;
+
+	public TokenBucket(final long capacity, final long periodMs) {
+		this.capacity = capacity;
+		this.nanosPerToken = TimeUnit.MILLISECONDS.toNanos(periodMs) / capacity;
+		this.burstNanos = nanosPerToken * capacity;
+		this.fullAt = new AtomicLong(System.nanoTime());
+	}
+
+	/**
+	 * Takes a token if there is one.
+	 * 
+	 * @return 0 if a token is taken, otherwise the nanoseconds until the next token
+	 */
+	public long tryConsume() {
+		return tryConsume(1);
+	}
+
+	/**
+	 * Takes the given number of tokens if there are that many. A number above the capacity takes a full bucket.
+	 * 
+	 * @return 0 if the tokens are taken, otherwise the nanoseconds until there are enough tokens
+	 */
+	public long tryConsume(final long tokens) {
+		final long cost = Math.min(tokens, capacity) * nanosPerToken;
+		while (true) {
+			final long now = System.nanoTime();
+			final long current = fullAt.get();
+			final long next = Math.max(current - now, 0) + now + cost;
+			final long wait = next - now - burstNanos;
+			if (wait > 0)
+				return wait;
+			if (fullAt.compareAndSet(current, next))
+				return 0;
+		}
+	}
+
+	/**
+	 * Gives back tokens taken for a request that is rejected by another bucket. A full bucket stays full, so a bucket
+	 * never holds more than its capacity.
+	 */
+	public void refund(final long tokens) {
+		final long cost = Math.min(tokens, capacity) * nanosPerToken;
+		while (true) {
+			final long now = System.nanoTime();
+			final long current = fullAt.get();
+			if (current - now <= 0 || fullAt.compareAndSet(current, Math.max(current - cost, now)))
+				return;
+		}
+	}
+}
@@ -0,0 +1,22 @@
+package com.gorkem.recipe.security;
+
+import java.util.Date;
+
+import lombok.Data;
+
+/**
+ * Claims of a jwt token whose signature is already verified.
+ * 
+ * @author gorkemdemiray
+ */
+@Data
+public class VerifiedToken {
+
+	private final String username;
+	private final String email;
+	private final Date expiration;
+
+	public boolean isExpired() {
+		return expiration.before(new Date());
+	}
+}
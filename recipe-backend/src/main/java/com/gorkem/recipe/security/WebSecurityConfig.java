@@ -1,7 +1,13 @@
 package com.gorkem.recipe.security;
 
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.config.annotation.authentication.builders.AuthenticationManagerBuilder;
 import org.springframework.security.config.annotation.method.configuration.EnableGlobalMethodSecurity;
@@ -15,6 +21,9 @@ import org.springframework.security.web.authentication.UsernamePasswordAuthentic
 
 import com.gorkem.recipe.service.UserDetailsServiceImpl;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+
 /**
  * Security config class that allows only specific endpoints for authenticated users.
  * 
@@ -28,18 +37,41 @@ public class WebSecurityConfig extends WebSecurityConfigurerAdapter {
 	private final JwtAuthenticationEntryPoint jwtAuthenticationEntryPoint;
 	private final UserDetailsServiceImpl userDetailsService;
 	private final JwtAuthorizationFilter jwtAuthorizationFilter;
+	private final RateLimitFilter rateLimitFilter;
+	private final MeterRegistry meterRegistry;
+	
+	@Value("${recipe.app.bcryptStrength}")
+	private int bcryptStrength;
+	
+	@Value("${recipe.app.passwordHashingThreads}")
+	private int passwordHashingThreads;
+	
+	@Value("${recipe.app.passwordHashingQueueSize}")
+	private int passwordHashingQueueSize;
 
 	public WebSecurityConfig(JwtAuthenticationEntryPoint jwtAuthenticationEntryPoint,
 			UserDetailsServiceImpl userDetailsService,
-			JwtAuthorizationFilter jwtAuthorizationFilter) {
+			JwtAuthorizationFilter jwtAuthorizationFilter,
+			RateLimitFilter rateLimitFilter,
+			MeterRegistry meterRegistry) {
 		this.jwtAuthenticationEntryPoint = jwtAuthenticationEntryPoint;
 		this.userDetailsService = userDetailsService;
 		this.jwtAuthorizationFilter = jwtAuthorizationFilter;
+		this.rateLimitFilter = rateLimitFilter;
+		this.meterRegistry = meterRegistry;
 	}
 	
+	/**
+	 * Hashes passwords with the configured bcrypt cost on a fixed size pool with a bounded queue. Stored hashes with a
+	 * lower cost are hashed again with the configured one on the next successful sign in.
+	 */
 	@Bean
 	public PasswordEncoder passwordEncoder() {
-		return new BCryptPasswordEncoder();
+		final ThreadPoolExecutor executor = new ThreadPoolExecutor(passwordHashingThreads, passwordHashingThreads, 0L,
+				TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(passwordHashingQueueSize),
+				new CustomizableThreadFactory("password-hashing-"), new ThreadPoolExecutor.AbortPolicy());
+		return new BoundedPasswordEncoder(new BCryptPasswordEncoder(bcryptStrength),
+				ExecutorServiceMetrics.monitor(meterRegistry, executor, "passwordHashing"));
 	}
 
 	@Bean
@@ -61,9 +93,11 @@ public class WebSecurityConfig extends WebSecurityConfigurerAdapter {
 					.authorizeRequests().antMatchers("/api/auth/**").permitAll()
 					.antMatchers("/api/recipes/**").permitAll()
 					.antMatchers("/v3/api-docs/**", "/swagger-ui/**", "/swagger-ui.html").permitAll()
+					.antMatchers("/actuator/health", "/actuator/prometheus").permitAll()
 					.anyRequest().authenticated();
 		
 		httpSecurity.addFilterBefore(jwtAuthorizationFilter, UsernamePasswordAuthenticationFilter.class);
+		httpSecurity.addFilterAfter(rateLimitFilter, JwtAuthorizationFilter.class);
 	}
 
 }
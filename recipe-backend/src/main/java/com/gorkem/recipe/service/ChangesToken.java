@@ -0,0 +1,55 @@
+package com.gorkem.recipe.service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+import com.gorkem.recipe.exception.InvalidCursorException;
+
+import lombok.Data;
+
+/**
+ * High water mark of a change sync: the last modification time and id of the last synced recipe, and the deletion
+ * time and recipe id of the last synced tombstone. It is sent to clients as an opaque url safe token.
+ *
+ * @author gorkemdemiray
+ */
+@Data
+public class ChangesToken {
+
+	private static final String PREFIX = "changes";
+	private static final String SEPARATOR = ",";
+	private static final LocalDateTime BEGINNING = LocalDateTime.of(1970, 1, 1, 0, 0);
+
+	private final LocalDateTime modifiedAt;
+	private final long modifiedId;
+	private final LocalDateTime deletedAt;
+	private final long deletedId;
+
+	/**
+	 * Token of a client that has nothing yet: it gets every recipe, but no tombstones of recipes deleted before.
+	 */
+	public static ChangesToken initial(final LocalDateTime until) {
+		return new ChangesToken(BEGINNING, 0, until, 0);
+	}
+
+	public static ChangesToken decode(final String token) {
+		try {
+			final String[] parts = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8)
+					.split(SEPARATOR);
+			if (parts.length != 5 || !parts[0].equals(PREFIX))
+				throw new InvalidCursorException(String.format("Invalid changes token: %s", token));
+			return new ChangesToken(LocalDateTime.parse(parts[1]), Long.parseLong(parts[2]),
+					LocalDateTime.parse(parts[3]), Long.parseLong(parts[4]));
+		} catch (IllegalArgumentException | DateTimeParseException ex) {
+			throw new InvalidCursorException(String.format("Invalid changes token: %s", token));
+		}
+	}
+
+	public String encode() {
+		return Base64.getUrlEncoder().withoutPadding().encodeToString(String.join(SEPARATOR, PREFIX,
+				modifiedAt.toString(), String.valueOf(modifiedId), deletedAt.toString(), String.valueOf(deletedId))
+				.getBytes(StandardCharsets.UTF_8));
+	}
+}
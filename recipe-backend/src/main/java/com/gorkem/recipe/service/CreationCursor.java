@@ -0,0 +1,50 @@
+package com.gorkem.recipe.service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+import com.gorkem.recipe.exception.InvalidCursorException;
+
+import lombok.Data;
+
+/**
+ * Position in a recipe list sorted by creation time: the creation time and id of the last recipe of a page. It is sent
+ * to clients as an opaque url safe cursor.
+ *
+ * @author gorkemdemiray
+ */
+@Data
+public class CreationCursor {
+
+	private static final String PREFIX = "created";
+	private static final String SEPARATOR = ",";
+
+	private final LocalDateTime creationTime;
+	private final long id;
+
+	/**
+	 * Position before the first recipe created after the given time.
+	 */
+	public static CreationCursor after(final LocalDateTime creationTime) {
+		return new CreationCursor(creationTime, Long.MAX_VALUE);
+	}
+
+	public static CreationCursor decode(final String cursor) {
+		try {
+			final String[] parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8)
+					.split(SEPARATOR);
+			if (parts.length != 3 || !parts[0].equals(PREFIX))
+				throw new InvalidCursorException(String.format("Invalid cursor: %s", cursor));
+			return new CreationCursor(LocalDateTime.parse(parts[1]), Long.parseLong(parts[2]));
+		} catch (IllegalArgumentException | DateTimeParseException ex) {
+			throw new InvalidCursorException(String.format("Invalid cursor: %s", cursor));
+		}
+	}
+
+	public String encode() {
+		return Base64.getUrlEncoder().withoutPadding().encodeToString(
+				String.join(SEPARATOR, PREFIX, creationTime.toString(), String.valueOf(id)).getBytes(StandardCharsets.UTF_8));
+	}
+}
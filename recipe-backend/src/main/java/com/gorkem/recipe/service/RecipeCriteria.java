@@ -0,0 +1,43 @@
+package com.gorkem.recipe.service;
+
+import java.time.LocalDateTime;
+
+import com.gorkem.recipe.exception.InvalidSearchException;
+
+import lombok.Data;
+
+/**
+ * Filter and order of a recipe list: the recipes created after and before the given times, both exclusive, sorted by
+ * id or by creation time. A missing bound is left open.
+ *
+ * @author gorkemdemiray
+ */
+@Data
+public class RecipeCriteria {
+
+	public static final String SORT_BY_ID = "id";
+	public static final String SORT_BY_CREATED = "created";
+
+	private static final LocalDateTime BEGINNING = LocalDateTime.of(1970, 1, 1, 0, 0);
+	private static final LocalDateTime END = LocalDateTime.of(9999, 12, 31, 0, 0);
+
+	private final LocalDateTime createdAfter;
+	private final LocalDateTime createdBefore;
+	private final boolean sortByCreated;
+
+	public static RecipeCriteria of(final LocalDateTime createdAfter, final LocalDateTime createdBefore,
+			final String sort) {
+		if (sort != null && !SORT_BY_ID.equalsIgnoreCase(sort) && !SORT_BY_CREATED.equalsIgnoreCase(sort))
+			throw new InvalidSearchException(String.format("Recipes can be sorted by %s or %s only!", SORT_BY_ID,
+					SORT_BY_CREATED));
+		return new RecipeCriteria(createdAfter == null ? BEGINNING : createdAfter,
+				createdBefore == null ? END : createdBefore, SORT_BY_CREATED.equalsIgnoreCase(sort));
+	}
+
+	/**
+	 * Whether this is the plain list of all recipes by id.
+	 */
+	public boolean isUnfiltered() {
+		return !sortByCreated && createdAfter.equals(BEGINNING) && createdBefore.equals(END);
+	}
+}
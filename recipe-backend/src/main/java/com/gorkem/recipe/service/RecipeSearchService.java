@@ -0,0 +1,195 @@
+package com.gorkem.recipe.service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.gorkem.recipe.config.PrimaryRead;
+import com.gorkem.recipe.event.RecipeChangedEvent;
+import com.gorkem.recipe.exception.InvalidSearchException;
+import com.gorkem.recipe.model.Recipe;
+import com.gorkem.recipe.payload.response.RecipeMatch;
+import com.gorkem.recipe.payload.response.SearchPage;
+import com.gorkem.recipe.repository.RecipeRepository;
+import com.gorkem.recipe.search.IngredientIndex;
+import com.gorkem.recipe.search.IngredientMatch;
+import com.gorkem.recipe.search.RecipeSearchIndex;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Recipe search service. Searches the embedded full-text and ingredient indexes and keeps them in sync with the recipe
+ * table.
+ *
+ * @author gorkemdemiray
+ */
+@Slf4j
+@Service
+public class RecipeSearchService {
+
+	private final RecipeSearchIndex recipeSearchIndex;
+	private final IngredientIndex ingredientIndex;
+	private final RecipeRepository recipeRepository;
+
+	@PersistenceContext
+	private EntityManager entityManager;
+
+	@Value("${recipe.app.defaultPageSize}")
+	private int defaultPageSize;
+
+	@Value("${recipe.app.maxPageSize}")
+	private int maxPageSize;
+
+	@Value("${recipe.app.maxSearchWindow}")
+	private int maxSearchWindow;
+
+	public RecipeSearchService(RecipeSearchIndex recipeSearchIndex, IngredientIndex ingredientIndex,
+			RecipeRepository recipeRepository) {
+		this.recipeSearchIndex = recipeSearchIndex;
+		this.ingredientIndex = ingredientIndex;
+		this.recipeRepository = recipeRepository;
+	}
+
+	public SearchPage<Recipe> searchRecipes(final String text, final Boolean vegetarian, final Integer minServingCapacity,
+			final Integer maxServingCapacity, final Integer page, final Integer size) {
+		final int pageNumber = getPageNumber(page);
+		final int pageSize = getPageSize(pageNumber, size);
+
+		final List<Long> ids;
+		try {
+			// one more id than the page size tells if there is a next page
+			ids = recipeSearchIndex.search(text, vegetarian, minServingCapacity, maxServingCapacity,
+					pageNumber * pageSize, pageSize + 1);
+		} catch (IOException ex) {
+			throw new UncheckedIOException(ex);
+		}
+		final boolean last = ids.size() <= pageSize;
+		final List<Long> pageIds = last ? ids : ids.subList(0, pageSize);
+		if (pageIds.isEmpty())
+			return new SearchPage<>(new ArrayList<>(), pageNumber, last);
+
+		final Map<Long, Recipe> recipes = findRecipes(pageIds);
+		final List<Recipe> content = pageIds.stream().map(recipes::get).filter(Objects::nonNull)
+				.collect(Collectors.toList());
+		return new SearchPage<>(content, pageNumber, last);
+	}
+
+	/**
+	 * Finds the recipes that can be cooked with the included ingredients. Without maxMissing a recipe has to use all
+	 * of them, with maxMissing it may need at most that many other ingredients. Recipes using any of the excluded
+	 * ingredients never match.
+	 */
+	public SearchPage<RecipeMatch> findRecipesByIngredients(final Collection<String> include,
+			final Collection<String> exclude, final Integer maxMissing, final Integer page, final Integer size) {
+		if (maxMissing != null && maxMissing < 0)
+			throw new InvalidSearchException("Max missing ingredients can not be negative!");
+		final int pageNumber = getPageNumber(page);
+		final int pageSize = getPageSize(pageNumber, size);
+
+		final List<IngredientMatch> matches = ingredientIndex.query(include, exclude, maxMissing, pageNumber * pageSize,
+				pageSize + 1);
+		final boolean last = matches.size() <= pageSize;
+		final List<IngredientMatch> pageMatches = last ? matches : matches.subList(0, pageSize);
+		if (pageMatches.isEmpty())
+			return new SearchPage<>(new ArrayList<>(), pageNumber, last);
+
+		final Map<Long, Recipe> recipes = findRecipes(
+				pageMatches.stream().map(IngredientMatch::getRecipeId).collect(Collectors.toList()));
+		final List<RecipeMatch> content = pageMatches.stream().filter(match -> recipes.containsKey(match.getRecipeId()))
+				.map(match -> new RecipeMatch(recipes.get(match.getRecipeId()), match.getMissingIngredients()))
+				.collect(Collectors.toList());
+		return new SearchPage<>(content, pageNumber, last);
+	}
+
+	/**
+	 * Rebuilds the search index from the recipe table and returns how many recipes were indexed.
+	 */
+	@Transactional(readOnly = true)
+	@PrimaryRead
+	public long rebuildIndex() {
+		try (Stream<Recipe> recipes = recipeRepository.streamAllWithIngredients()) {
+			final long count = recipeSearchIndex.rebuild(recipes.peek(entityManager::detach));
+			log.info(String.format("Search index is rebuilt with %d recipes", count));
+			return count;
+		} catch (IOException ex) {
+			throw new UncheckedIOException(ex);
+		}
+	}
+
+	/**
+	 * Rebuilds the in memory ingredient index from the recipe table and returns how many recipes were indexed.
+	 */
+	@Transactional(readOnly = true)
+	@PrimaryRead
+	public long rebuildIngredientIndex() {
+		try (Stream<Recipe> recipes = recipeRepository.streamAllWithIngredients()) {
+			final long count = ingredientIndex.rebuild(recipes.peek(entityManager::detach));
+			log.info(String.format("Ingredient index is rebuilt with %d recipes and %d ingredients", count,
+					ingredientIndex.ingredientCount()));
+			return count;
+		}
+	}
+
+	/**
+	 * Loads the ingredient index on startup and rebuilds the search index if it does not hold as many recipes as the
+	 * recipe table, e.g. when it is new or the application stopped before a change reached the index.
+	 */
+	@EventListener(ApplicationReadyEvent.class)
+	@Transactional(readOnly = true)
+	@PrimaryRead
+	public void rebuildIndexIfStale() {
+		rebuildIngredientIndex();
+		if (recipeSearchIndex.count() != recipeRepository.count())
+			rebuildIndex();
+	}
+
+	@TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+	public void onRecipeChanged(final RecipeChangedEvent event) {
+		ingredientIndex.update(event.getSavedRecipes(), event.getDeletedIds());
+		try {
+			recipeSearchIndex.update(event.getSavedRecipes(), event.getDeletedIds());
+		} catch (IOException ex) {
+			log.error(String.format("Search index could not be updated: %s", ex.getMessage()));
+		}
+	}
+
+	private int getPageNumber(final Integer page) {
+		final int pageNumber = page == null ? 0 : page;
+		if (pageNumber < 0)
+			throw new InvalidSearchException("Page can not be negative!");
+		return pageNumber;
+	}
+
+	private int getPageSize(final int pageNumber, final Integer size) {
+		final int pageSize = size == null ? defaultPageSize : Math.min(size, maxPageSize);
+		if (pageSize < 1)
+			throw new InvalidSearchException("Size must be at least 1!");
+		if ((long) (pageNumber + 1) * pageSize > maxSearchWindow)
+			throw new InvalidSearchException(
+					String.format("Search results are limited to the first %d recipes!", maxSearchWindow));
+		return pageSize;
+	}
+
+	private Map<Long, Recipe> findRecipes(final List<Long> ids) {
+		return recipeRepository.findAllWithIngredientsByIdIn(ids).stream()
+				.collect(Collectors.toMap(Recipe::getId, Function.identity()));
+	}
+}
@@ -1,15 +1,72 @@
 package com.gorkem.recipe.service;
 
+import java.io.IOException;
+import java.io.OutputStream;
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.UnaryOperator;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.validation.ConstraintViolation;
+import javax.validation.Validator;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.Caching;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.gorkem.recipe.config.CacheConfig;
+import com.gorkem.recipe.config.PrimaryRead;
+import com.gorkem.recipe.event.RecipeChangedEvent;
+import com.gorkem.recipe.exception.BulkLimitExceededException;
+import com.gorkem.recipe.exception.ChangesExpiredException;
+import com.gorkem.recipe.exception.InvalidPatchException;
 import com.gorkem.recipe.exception.NoRecipesFoundException;
 import com.gorkem.recipe.exception.RecipeAlreadyExistsException;
+import com.gorkem.recipe.exception.RecipeModifiedException;
 import com.gorkem.recipe.exception.RecipeNotFoundException;
+import com.gorkem.recipe.model.Ingredient;
 import com.gorkem.recipe.model.Recipe;
+import com.gorkem.recipe.model.RecipeTombstone;
+import com.gorkem.recipe.payload.response.BulkItemResponse;
+import com.gorkem.recipe.payload.response.CursorPage;
+import com.gorkem.recipe.payload.response.RecipeChanges;
+import com.gorkem.recipe.payload.response.RecipeSummary;
 import com.gorkem.recipe.repository.RecipeRepository;
+import com.gorkem.recipe.repository.RecipeRepository.RecipeCreation;
+import com.gorkem.recipe.repository.RecipeRepository.RecipeModification;
+import com.gorkem.recipe.repository.RecipeRepository.RecipeName;
+import com.gorkem.recipe.repository.RecipeRepository.RecipesModification;
+import com.gorkem.recipe.repository.RecipeTombstoneRepository;
 import com.gorkem.recipe.util.RecipeUtil;
 
 /**
@@ -20,46 +77,629 @@ import com.gorkem.recipe.util.RecipeUtil;
 @Service
 public class RecipeService {
 
+	private static final int NEWLINE = '\n';
+
 	private final RecipeRepository recipeRepository;
+	private final RecipeTombstoneRepository recipeTombstoneRepository;
+	private final ObjectMapper objectMapper;
+	private final ObjectWriter objectWriter;
+	private final Validator validator;
+	private final ApplicationEventPublisher eventPublisher;
+	private final TransactionTemplate transactionTemplate;
+	
+	@PersistenceContext
+	private EntityManager entityManager;
+	
+	@Value("${recipe.app.defaultPageSize}")
+	private int defaultPageSize;
+	
+	@Value("${recipe.app.maxPageSize}")
+	private int maxPageSize;
 
-	public RecipeService(RecipeRepository recipeRepository) {
+	@Value("${recipe.app.exportFlushInterval}")
+	private int exportFlushInterval;
+	
+	@Value("${recipe.app.bulkMaxItems}")
+	private int bulkMaxItems;
+	
+	@Value("${recipe.app.updateMaxAttempts}")
+	private int updateMaxAttempts;
+	
+	@Value("${recipe.app.changesSettleMs}")
+	private long changesSettleMs;
+	
+	@Value("${recipe.app.tombstoneRetentionMs}")
+	private long tombstoneRetentionMs;
+
+	public RecipeService(RecipeRepository recipeRepository, RecipeTombstoneRepository recipeTombstoneRepository,
+			ObjectMapper objectMapper, Validator validator, ApplicationEventPublisher eventPublisher,
+			PlatformTransactionManager transactionManager) {
 		this.recipeRepository = recipeRepository;
+		this.recipeTombstoneRepository = recipeTombstoneRepository;
+		this.objectMapper = objectMapper;
+		this.objectWriter = objectMapper.writer();
+		this.validator = validator;
+		this.eventPublisher = eventPublisher;
+		this.transactionTemplate = new TransactionTemplate(transactionManager);
 	}
 
+	@Transactional
+	@CacheEvict(cacheNames = CacheConfig.RECIPE_PAGES, allEntries = true)
 	public Recipe createRecipe(final Recipe recipe) {
 		if (recipeRepository.existsByName(recipe.getName()))
 			throw new RecipeAlreadyExistsException(String.format("Recipe already exists with name: %s", recipe.getName()));
 		LocalDateTime localDateTime = LocalDateTime.now();
-		recipe.setCreationTime(RecipeUtil.convertDateTimeToString(localDateTime));
+		recipe.setVersion(null);
+		recipe.setCreationTime(localDateTime);
 		recipe.setLastModified(localDateTime);
-		return recipeRepository.save(recipe);
+		Recipe savedRecipe = recipeRepository.saveAndFlush(recipe);
+		eventPublisher.publishEvent(RecipeChangedEvent.created(savedRecipe));
+		return savedRecipe;
+	}
+	
+	/**
+	 * Creates all valid recipes of the request in one transaction. Names are checked with one query and the recipes
+	 * are inserted with jdbc batching. Invalid recipes and recipes with taken names are reported and skipped.
+	 */
+	@Transactional
+	@CacheEvict(cacheNames = CacheConfig.RECIPE_PAGES, allEntries = true)
+	public List<BulkItemResponse> createRecipes(final List<Recipe> recipes) {
+		checkBulkLimit(recipes.size());
+		final Set<String> takenNames = findRecipeNames(recipes).stream().map(RecipeName::getName)
+				.collect(Collectors.toSet());
+		final LocalDateTime localDateTime = LocalDateTime.now();
+		final List<BulkItemResponse> responses = new ArrayList<>(recipes.size());
+		final List<Recipe> newRecipes = new ArrayList<>(recipes.size());
+		for (int index = 0; index < recipes.size(); index++) {
+			Recipe recipe = recipes.get(index);
+			String violations = validate(recipe);
+			if (violations != null) {
+				responses.add(new BulkItemResponse(index, null, HttpStatus.BAD_REQUEST.value(), violations));
+			} else if (!takenNames.add(recipe.getName())) {
+				responses.add(new BulkItemResponse(index, null, HttpStatus.CONFLICT.value(),
+						String.format("Recipe already exists with name: %s", recipe.getName())));
+			} else {
+				recipe.setId(null);
+				recipe.setVersion(null);
+				recipe.setIngredients(copyIngredients(recipe.getIngredients()));
+				recipe.setCreationTime(localDateTime);
+				recipe.setLastModified(localDateTime);
+				newRecipes.add(recipe);
+				responses.add(new BulkItemResponse(index, null, HttpStatus.CREATED.value(), null));
+			}
+		}
+		recipeRepository.saveAll(newRecipes);
+		recipeRepository.flush();
+		eventPublisher.publishEvent(RecipeChangedEvent.created(newRecipes));
+		Iterator<Recipe> savedRecipes = newRecipes.iterator();
+		responses.stream().filter(response -> response.getStatus() == HttpStatus.CREATED.value())
+				.forEach(response -> response.setId(savedRecipes.next().getId()));
+		return responses;
 	}
 
+	@Cacheable(cacheNames = CacheConfig.RECIPES, key = "#id")
+	@Transactional(readOnly = true)
+	@PrimaryRead
 	public Recipe getRecipe(final Long id) {
-		return recipeRepository.findById(id)
+		return recipeRepository.findWithIngredientsById(id)
+				.orElseThrow(() -> new RecipeNotFoundException(String.format("Invalid recipe id : %d", id)));
+	}
+	
+	/**
+	 * Returns the version of the recipe, read without the recipe and its ingredients, so that a conditional request
+	 * is answered before the recipe is loaded.
+	 */
+	@Transactional(readOnly = true)
+	public RecipeVersion getRecipeVersion(final Long id) {
+		final RecipeModification modification = recipeRepository.findModificationById(id)
 				.orElseThrow(() -> new RecipeNotFoundException(String.format("Invalid recipe id : %d", id)));
+		return RecipeVersion.of(modification.getId(), modification.getVersion(), modification.getLastModified());
 	}
 	
+	@Transactional(readOnly = true)
 	public List<Recipe> getAllRecipes() {
-		List<Recipe> recipes = recipeRepository.findAll();
+		List<Recipe> recipes = recipeRepository.findAllWithIngredients();
 		if (recipes.size() == 0)
 			throw new NoRecipesFoundException("No recipes found!");
 		return recipes;
 	}
 	
+	@Transactional(readOnly = true)
+	public RecipeVersion getAllRecipesVersion() {
+		RecipesModification modification = recipeRepository.findModification();
+		if (modification.getCount() == 0)
+			throw new NoRecipesFoundException("No recipes found!");
+		return RecipeVersion.of(modification.getCount(), modification.getVersionSum(),
+				modification.getLastModified());
+	}
+	
+	@Cacheable(cacheNames = CacheConfig.RECIPE_PAGES)
+	@Transactional(readOnly = true)
+	@PrimaryRead
+	public CursorPage<Recipe> getRecipes(final String cursor, final Integer size) {
+		final Long afterId = cursor == null ? 0L : RecipeUtil.decodeCursor(cursor);
+		final int pageSize = getPageSize(size);
+		// one extra id tells whether there is a next page without a count query
+		List<Long> ids = recipeRepository.findIdsAfter(afterId, PageRequest.of(0, pageSize + 1));
+		if (cursor == null && ids.size() == 0)
+			throw new NoRecipesFoundException("No recipes found!");
+		String nextCursor = null;
+		if (ids.size() > pageSize) {
+			ids = ids.subList(0, pageSize);
+			nextCursor = RecipeUtil.encodeCursor(ids.get(pageSize - 1));
+		}
+		// the page is limited on the ids, so the ingredients can be join fetched without paging in memory
+		List<Recipe> recipes = ids.isEmpty() ? new ArrayList<>() : recipeRepository.findAllWithIngredientsByIdIn(ids);
+		return new CursorPage<>(recipes, nextCursor);
+	}
+	
+	/**
+	 * Returns the same page as {@link #getRecipes(String, Integer)} with the summaries of the recipes only, read in
+	 * a single query on the recipe table without the cooking instructions and the ingredients.
+	 */
+	@Cacheable(cacheNames = CacheConfig.RECIPE_PAGES, key = "{'summary', #cursor, #size}")
+	@Transactional(readOnly = true)
+	@PrimaryRead
+	public CursorPage<RecipeSummary> getRecipeSummaries(final String cursor, final Integer size) {
+		final Long afterId = cursor == null ? 0L : RecipeUtil.decodeCursor(cursor);
+		final int pageSize = getPageSize(size);
+		List<RecipeSummary> summaries = recipeRepository.findSummariesAfter(afterId, PageRequest.of(0, pageSize + 1));
+		if (cursor == null && summaries.size() == 0)
+			throw new NoRecipesFoundException("No recipes found!");
+		String nextCursor = null;
+		if (summaries.size() > pageSize) {
+			summaries = new ArrayList<>(summaries.subList(0, pageSize));
+			nextCursor = RecipeUtil.encodeCursor(summaries.get(pageSize - 1).getId());
+		}
+		return new CursorPage<>(summaries, nextCursor);
+	}
+	
+	/**
+	 * Returns a page of the recipes matching the criteria. The page is read with a keyset query on the creation time
+	 * index, by creation time or by id, and its recipes are loaded by their ids like the pages of all recipes.
+	 */
+	@Cacheable(cacheNames = CacheConfig.RECIPE_PAGES)
+	@Transactional(readOnly = true)
+	@PrimaryRead
+	public CursorPage<Recipe> getRecipes(final String cursor, final Integer size, final RecipeCriteria criteria) {
+		if (criteria.isUnfiltered())
+			return getRecipes(cursor, size);
+		final int pageSize = getPageSize(size);
+		List<RecipeCreation> creations = findCreations(cursor, pageSize + 1, criteria);
+		if (cursor == null && creations.size() == 0)
+			throw new NoRecipesFoundException("No recipes found!");
+		String nextCursor = null;
+		if (creations.size() > pageSize) {
+			creations = creations.subList(0, pageSize);
+			nextCursor = encodeCursor(creations.get(pageSize - 1), criteria);
+		}
+		final List<Long> ids = creations.stream().map(RecipeCreation::getId).collect(Collectors.toList());
+		List<Recipe> recipes = ids.isEmpty() ? new ArrayList<>()
+				: sortByIds(ids, recipeRepository.findAllWithIngredientsByIdIn(ids), Recipe::getId);
+		return new CursorPage<>(recipes, nextCursor);
+	}
+	
+	/**
+	 * Returns the same page as {@link #getRecipes(String, Integer, RecipeCriteria)} with the summaries of the recipes
+	 * only.
+	 */
+	@Cacheable(cacheNames = CacheConfig.RECIPE_PAGES, key = "{'summary', #cursor, #size, #criteria}")
+	@Transactional(readOnly = true)
+	@PrimaryRead
+	public CursorPage<RecipeSummary> getRecipeSummaries(final String cursor, final Integer size,
+			final RecipeCriteria criteria) {
+		if (criteria.isUnfiltered())
+			return getRecipeSummaries(cursor, size);
+		final int pageSize = getPageSize(size);
+		List<RecipeCreation> creations = findCreations(cursor, pageSize + 1, criteria);
+		if (cursor == null && creations.size() == 0)
+			throw new NoRecipesFoundException("No recipes found!");
+		String nextCursor = null;
+		if (creations.size() > pageSize) {
+			creations = creations.subList(0, pageSize);
+			nextCursor = encodeCursor(creations.get(pageSize - 1), criteria);
+		}
+		final List<Long> ids = creations.stream().map(RecipeCreation::getId).collect(Collectors.toList());
+		List<RecipeSummary> summaries = ids.isEmpty() ? new ArrayList<>()
+				: sortByIds(ids, recipeRepository.findSummariesByIdIn(ids), RecipeSummary::getId);
+		return new CursorPage<>(summaries, nextCursor);
+	}
+	
+	/**
+	 * Returns the version of the page {@link #getRecipes(String, Integer, RecipeCriteria)} and
+	 * {@link #getRecipeSummaries(String, Integer, RecipeCriteria)} return, read from the ids, versions and modification
+	 * times of the page only, so that a conditional request is answered before the page is loaded.
+	 */
+	@Transactional(readOnly = true)
+	public RecipeVersion getRecipesVersion(final String cursor, final Integer size, final RecipeCriteria criteria) {
+		final int pageSize = getPageSize(size);
+		if (criteria.isUnfiltered()) {
+			final Long afterId = cursor == null ? 0L : RecipeUtil.decodeCursor(cursor);
+			return getPageVersion(cursor, pageSize,
+					recipeRepository.findModificationsAfter(afterId, PageRequest.of(0, pageSize + 1)),
+					modification -> RecipeUtil.encodeCursor(modification.getId()));
+		}
+		return getPageVersion(cursor, pageSize, findCreations(cursor, pageSize + 1, criteria),
+				creation -> encodeCursor(creation, criteria));
+	}
+	
+	/**
+	 * Returns the recipes modified and the ids of the recipes deleted since the given token, in the order of their
+	 * last modification and deletion times, with the token to get the next changes. Both are read with keyset queries
+	 * on the indexes of those times. Changes of the last settle window are left for the next call, because a
+	 * transaction still running may commit a change stamped inside it, which the next token would already be past.
+	 * The changes are read from the primary, as a replica lagging more than the window would hide such changes too.
+	 */
+	@Transactional(readOnly = true)
+	@PrimaryRead
+	public RecipeChanges getChanges(final String since, final Integer size) {
+		final LocalDateTime now = LocalDateTime.now();
+		final LocalDateTime until = now.minus(changesSettleMs, ChronoUnit.MILLIS);
+		final ChangesToken token = since == null ? ChangesToken.initial(until) : ChangesToken.decode(since);
+		if (token.getDeletedAt().isBefore(now.minus(tombstoneRetentionMs, ChronoUnit.MILLIS)))
+			throw new ChangesExpiredException("Deleted recipes since the token are not kept anymore, sync all recipes again");
+		final int pageSize = getPageSize(size);
+		List<RecipeModification> modifications = recipeRepository.findModificationsSince(token.getModifiedAt(),
+				token.getModifiedId(), until, PageRequest.of(0, pageSize + 1));
+		List<RecipeTombstone> tombstones = recipeTombstoneRepository.findDeletedSince(token.getDeletedAt(),
+				token.getDeletedId(), until, PageRequest.of(0, pageSize + 1));
+		// a stream read to the end moves its mark to the settle horizon, so the token of an idle client stays recent
+		LocalDateTime modifiedAt = until;
+		long modifiedId = 0;
+		final boolean moreModifications = modifications.size() > pageSize;
+		if (moreModifications) {
+			modifications = modifications.subList(0, pageSize);
+			modifiedAt = modifications.get(pageSize - 1).getLastModified();
+			modifiedId = modifications.get(pageSize - 1).getId();
+		}
+		LocalDateTime deletedAt = until;
+		long deletedId = 0;
+		final boolean moreTombstones = tombstones.size() > pageSize;
+		if (moreTombstones) {
+			tombstones = tombstones.subList(0, pageSize);
+			deletedAt = tombstones.get(pageSize - 1).getDeletedAt();
+			deletedId = tombstones.get(pageSize - 1).getRecipeId();
+		}
+		final List<Long> ids = modifications.stream().map(RecipeModification::getId).collect(Collectors.toList());
+		final List<Recipe> recipes = ids.isEmpty() ? new ArrayList<>() : recipeRepository.findAllWithIngredientsByIdIn(ids);
+		return new RecipeChanges(recipes, tombstones.stream().map(RecipeTombstone::getRecipeId).collect(Collectors.toList()),
+				new ChangesToken(modifiedAt, modifiedId, deletedAt, deletedId).encode(), moreModifications || moreTombstones);
+	}
+	
+	/**
+	 * Removes the tombstones older than the retention, tokens from before it are answered with gone.
+	 */
+	@Scheduled(fixedDelayString = "${recipe.app.tombstonePurgeIntervalMs}")
+	@Transactional
+	public void purgeTombstones() {
+		recipeTombstoneRepository.deleteDeletedBefore(LocalDateTime.now().minus(tombstoneRetentionMs, ChronoUnit.MILLIS));
+	}
+	
+	/**
+	 * Writes all recipes to the given output stream as newline delimited json while they are read from the database.
+	 * Every written recipe is detached right away, so memory usage does not grow with the size of the table.
+	 * 
+	 * @return number of exported recipes
+	 */
+	@Transactional(readOnly = true)
+	public long exportRecipes(final OutputStream outputStream) throws IOException {
+		long count = 0;
+		try (Stream<Recipe> recipes = recipeRepository.streamAllWithIngredients()) {
+			Iterator<Recipe> iterator = recipes.iterator();
+			while (iterator.hasNext()) {
+				Recipe recipe = iterator.next();
+				outputStream.write(objectWriter.writeValueAsBytes(recipe));
+				outputStream.write(NEWLINE);
+				entityManager.detach(recipe);
+				if (++count % exportFlushInterval == 0)
+					outputStream.flush();
+			}
+		}
+		outputStream.flush();
+		return count;
+	}
+	
+	@Caching(evict = { @CacheEvict(cacheNames = CacheConfig.RECIPES, key = "#id"),
+			@CacheEvict(cacheNames = CacheConfig.RECIPE_PAGES, allEntries = true) })
 	public Recipe updateRecipe(final Long id, final Recipe newRecipe) {
-		Recipe recipe = getRecipe(id);
+		return updateRecipe(id, newRecipe, null);
+	}
+	
+	/**
+	 * Updates the recipe only if its current version matches the If-Match header, when one is given.
+	 */
+	@Caching(evict = { @CacheEvict(cacheNames = CacheConfig.RECIPES, key = "#id"),
+			@CacheEvict(cacheNames = CacheConfig.RECIPE_PAGES, allEntries = true) })
+	public Recipe updateRecipe(final Long id, final Recipe newRecipe, final String ifMatch) {
+		return update(id, ifMatch, newRecipe.getVersion(), recipe -> newRecipe);
+	}
+
+	/**
+	 * Applies a JSON merge patch to the recipe. Members left out of the patch keep their values, and with dynamic
+	 * updates only the columns whose values changed are written. A version member in the patch is checked like the
+	 * version of a full update.
+	 */
+	@Caching(evict = { @CacheEvict(cacheNames = CacheConfig.RECIPES, key = "#id"),
+			@CacheEvict(cacheNames = CacheConfig.RECIPE_PAGES, allEntries = true) })
+	public Recipe patchRecipe(final Long id, final JsonNode patch, final String ifMatch) {
+		if (!patch.isObject())
+			throw new InvalidPatchException("Recipe patch must be a JSON object!");
+		final JsonNode version = patch.get("version");
+		return update(id, ifMatch, version == null || version.isNull() ? null : version.asLong(),
+				recipe -> applyPatch(recipe, patch));
+	}
+	
+	/**
+	 * Updates all valid recipes of the request in one transaction. The recipes are loaded with one query and written
+	 * with jdbc batching. Invalid, missing and conflicting recipes are reported and skipped.
+	 */
+	@Transactional
+	@CacheEvict(cacheNames = { CacheConfig.RECIPES, CacheConfig.RECIPE_PAGES }, allEntries = true)
+	public List<BulkItemResponse> updateRecipes(final List<Recipe> newRecipes) {
+		checkBulkLimit(newRecipes.size());
+		final Map<Long, Recipe> recipes = findRecipes(newRecipes.stream().map(Recipe::getId));
+		final Map<String, Long> takenNames = findRecipeNames(newRecipes).stream()
+				.collect(Collectors.toMap(RecipeName::getName, RecipeName::getId, (first, second) -> first));
+		final LocalDateTime localDateTime = LocalDateTime.now();
+		final List<BulkItemResponse> responses = new ArrayList<>(newRecipes.size());
+		final List<Recipe> savedRecipes = new ArrayList<>(newRecipes.size());
+		for (int index = 0; index < newRecipes.size(); index++) {
+			Recipe newRecipe = newRecipes.get(index);
+			Long id = newRecipe.getId();
+			String violations = validate(newRecipe);
+			if (violations != null) {
+				responses.add(new BulkItemResponse(index, id, HttpStatus.BAD_REQUEST.value(), violations));
+			} else if (id == null || !recipes.containsKey(id)) {
+				responses.add(new BulkItemResponse(index, id, HttpStatus.NOT_FOUND.value(),
+						String.format("Invalid recipe id : %d", id)));
+			} else if (newRecipe.getVersion() != null && !newRecipe.getVersion().equals(recipes.get(id).getVersion())) {
+				responses.add(new BulkItemResponse(index, id, HttpStatus.PRECONDITION_FAILED.value(),
+						String.format("Recipe with id %d was modified, its version is %d", id, recipes.get(id).getVersion())));
+			} else if (!id.equals(takenNames.computeIfAbsent(newRecipe.getName(), name -> id))) {
+				responses.add(new BulkItemResponse(index, id, HttpStatus.CONFLICT.value(),
+						String.format("Recipe already exists with name: %s", newRecipe.getName())));
+			} else {
+				Recipe recipe = recipes.remove(id);
+				applyChanges(recipe, newRecipe, localDateTime);
+				savedRecipes.add(recipe);
+				responses.add(new BulkItemResponse(index, id, HttpStatus.OK.value(), null));
+			}
+		}
+		recipeRepository.flush();
+		eventPublisher.publishEvent(RecipeChangedEvent.saved(savedRecipes));
+		return responses;
+	}
+	
+	@Caching(evict = { @CacheEvict(cacheNames = CacheConfig.RECIPES, key = "#id"),
+			@CacheEvict(cacheNames = CacheConfig.RECIPE_PAGES, allEntries = true) })
+	@Transactional
+	public void deleteRecipe(final Long id) {
+		getRecipe(id);
+		recipeRepository.deleteById(id);
+		recipeTombstoneRepository.save(new RecipeTombstone(id, LocalDateTime.now()));
+		eventPublisher.publishEvent(RecipeChangedEvent.deleted(id));
+	}
+	
+	/**
+	 * Deletes all existing recipes of the request in one transaction with jdbc batching. Missing recipes are reported.
+	 */
+	@Transactional
+	@CacheEvict(cacheNames = { CacheConfig.RECIPES, CacheConfig.RECIPE_PAGES }, allEntries = true)
+	public List<BulkItemResponse> deleteRecipes(final List<Long> ids) {
+		checkBulkLimit(ids.size());
+		final Map<Long, Recipe> recipes = findRecipes(ids.stream());
+		final List<BulkItemResponse> responses = new ArrayList<>(ids.size());
+		final List<Long> deletedIds = new ArrayList<>(ids.size());
+		final LocalDateTime deletedAt = LocalDateTime.now();
+		for (int index = 0; index < ids.size(); index++) {
+			Long id = ids.get(index);
+			Recipe recipe = id == null ? null : recipes.remove(id);
+			if (recipe == null) {
+				responses.add(new BulkItemResponse(index, id, HttpStatus.NOT_FOUND.value(),
+						String.format("Invalid recipe id : %d", id)));
+			} else {
+				recipeRepository.delete(recipe);
+				deletedIds.add(id);
+				responses.add(new BulkItemResponse(index, id, HttpStatus.NO_CONTENT.value(), null));
+			}
+		}
+		recipeTombstoneRepository.saveAll(deletedIds.stream().map(id -> new RecipeTombstone(id, deletedAt))
+				.collect(Collectors.toList()));
+		recipeRepository.flush();
+		eventPublisher.publishEvent(RecipeChangedEvent.deleted(deletedIds));
+		return responses;
+	}
+	
+	private int getPageSize(final Integer size) {
+		return size == null ? defaultPageSize : Math.min(Math.max(size, 1), maxPageSize);
+	}
+	
+	/**
+	 * Returns the version of the page read with one extra recipe, which tells whether there is a next page like it
+	 * does for the page itself.
+	 */
+	private <T extends RecipeModification> RecipeVersion getPageVersion(final String cursor, final int pageSize,
+			List<T> modifications, final Function<T, String> encodeCursor) {
+		if (cursor == null && modifications.size() == 0)
+			throw new NoRecipesFoundException("No recipes found!");
+		String nextCursor = null;
+		if (modifications.size() > pageSize) {
+			modifications = modifications.subList(0, pageSize);
+			nextCursor = encodeCursor.apply(modifications.get(pageSize - 1));
+		}
+		return RecipeVersion.of(new CursorPage<>(modifications, nextCursor), RecipeModification::getId,
+				RecipeModification::getVersion, RecipeModification::getLastModified);
+	}
+	
+	/**
+	 * Reads the ids, creation times, versions and modification times of the recipes after the cursor that match the
+	 * criteria. Sorted by creation time the cursor holds the creation time and id of the last recipe, otherwise its id
+	 * only.
+	 */
+	private List<RecipeCreation> findCreations(final String cursor, final int limit, final RecipeCriteria criteria) {
+		if (criteria.isSortByCreated()) {
+			final CreationCursor position = cursor == null ? CreationCursor.after(criteria.getCreatedAfter())
+					: CreationCursor.decode(cursor);
+			return recipeRepository.findCreationsSince(position.getCreationTime(), position.getId(),
+					criteria.getCreatedBefore(), PageRequest.of(0, limit));
+		}
+		final Long afterId = cursor == null ? 0L : RecipeUtil.decodeCursor(cursor);
+		return recipeRepository.findCreationsAfter(afterId, criteria.getCreatedAfter(), criteria.getCreatedBefore(),
+				PageRequest.of(0, limit));
+	}
+	
+	private String encodeCursor(final RecipeCreation creation, final RecipeCriteria criteria) {
+		return criteria.isSortByCreated() ? new CreationCursor(creation.getCreationTime(), creation.getId()).encode()
+				: RecipeUtil.encodeCursor(creation.getId());
+	}
+	
+	/**
+	 * Puts the items loaded by id back in the order of the page.
+	 */
+	private <T> List<T> sortByIds(final List<Long> ids, final List<T> items, final Function<T, Long> getId) {
+		final Map<Long, T> itemsById = items.stream().collect(Collectors.toMap(getId, Function.identity()));
+		return ids.stream().map(itemsById::get).filter(Objects::nonNull).collect(Collectors.toList());
+	}
+	
+	/**
+	 * Loads the recipe, checks its version and applies the changes built from it in one transaction. When another
+	 * update commits first, the changes are built again on top of it, unless the client asked for a version.
+	 */
+	private Recipe update(final Long id, final String ifMatch, final Long version,
+			final UnaryOperator<Recipe> changes) {
+		for (int attempt = 1;; attempt++) {
+			try {
+				return transactionTemplate.execute(status -> {
+					Recipe recipe = recipeRepository.findWithIngredientsById(id)
+							.orElseThrow(() -> new RecipeNotFoundException(String.format("Invalid recipe id : %d", id)));
+					checkVersion(recipe, version, ifMatch);
+					applyChanges(recipe, changes.apply(recipe), LocalDateTime.now());
+					// flushing here runs the versioned update and the validation inside the retried block
+					recipeRepository.flush();
+					eventPublisher.publishEvent(RecipeChangedEvent.saved(recipe));
+					return recipe;
+				});
+			} catch (OptimisticLockingFailureException ex) {
+				if (attempt >= updateMaxAttempts || ifMatch != null || version != null)
+					throw new RecipeModifiedException(
+							String.format("Recipe with id %d was modified by another update, try again", id));
+			}
+		}
+	}
+
+	/**
+	 * Fails if the recipe is modified since the version the client sent, either in the If-Match header or in the
+	 * version field of the request.
+	 */
+	private void checkVersion(final Recipe recipe, final Long version, final String ifMatch) {
+		if (ifMatch != null
+				&& !RecipeVersion.of(recipe.getId(), recipe.getVersion(), recipe.getLastModified()).matches(ifMatch))
+			throw new RecipeModifiedException(String.format("Recipe with id %d was modified, its version does not match %s",
+					recipe.getId(), ifMatch));
+		if (version != null && !version.equals(recipe.getVersion()))
+			throw new RecipeModifiedException(String.format("Recipe with id %d was modified, its version is %d",
+					recipe.getId(), recipe.getVersion()));
+	}
+	
+	/**
+	 * Builds the patched recipe from the json of the current one, so it can be validated and applied like a full
+	 * update. Ingredients are copied with their ids, so the ones the patch leaves alone are matched and not written.
+	 */
+	private Recipe applyPatch(final Recipe recipe, final JsonNode patch) {
+		final Recipe newRecipe;
+		try {
+			newRecipe = objectMapper.treeToValue(RecipeUtil.mergePatch(objectMapper.valueToTree(recipe), patch),
+					Recipe.class);
+		} catch (JsonProcessingException ex) {
+			throw new InvalidPatchException(String.format("Invalid recipe patch: %s", ex.getOriginalMessage()));
+		}
+		final String violations = validate(newRecipe);
+		if (violations != null)
+			throw new InvalidPatchException(violations);
+		return newRecipe;
+	}
+
+	private void applyChanges(final Recipe recipe, final Recipe newRecipe, final LocalDateTime lastModified) {
 		recipe.setName(newRecipe.getName());
 		recipe.setVegetarian(newRecipe.getVegetarian());
-		recipe.setIngredients(newRecipe.getIngredients());
+		mergeIngredients(recipe.getIngredients(), newRecipe.getIngredients());
 		recipe.setServingCapacity(newRecipe.getServingCapacity());
 		recipe.setCookingInstructions(newRecipe.getCookingInstructions());
-		recipe.setLastModified(LocalDateTime.now());
-		return recipeRepository.save(recipe);
+		recipe.setLastModified(lastModified);
 	}
 	
-	public void deleteRecipe(final Long id) {
-		getRecipe(id);
-		recipeRepository.deleteById(id);
+	/**
+	 * Applies the new ingredients to the managed list in place, so only the changed rows are written: ingredients
+	 * matched by id, or else by name, are updated, new ones are inserted and the ones left out are deleted as orphans.
+	 */
+	private void mergeIngredients(final List<Ingredient> ingredients, final List<Ingredient> newIngredients) {
+		final Map<Long, Ingredient> ingredientsById = new HashMap<>();
+		final Map<String, Deque<Ingredient>> ingredientsByName = new HashMap<>();
+		for (Ingredient ingredient : ingredients) {
+			ingredientsById.put(ingredient.getId(), ingredient);
+			ingredientsByName.computeIfAbsent(ingredient.getName(), name -> new ArrayDeque<>()).add(ingredient);
+		}
+		// ingredients change while they are matched, so they are tracked by identity rather than equals
+		final Set<Ingredient> keptIngredients = Collections.newSetFromMap(new IdentityHashMap<>());
+		final List<Ingredient> addedIngredients = new ArrayList<>();
+		for (Ingredient newIngredient : newIngredients) {
+			Ingredient ingredient = newIngredient.getId() == null ? null : ingredientsById.get(newIngredient.getId());
+			if (ingredient == null || keptIngredients.contains(ingredient))
+				ingredient = pollIngredient(ingredientsByName.get(newIngredient.getName()), keptIngredients);
+			if (ingredient == null) {
+				addedIngredients.add(Ingredient.builder().name(newIngredient.getName())
+						.quantity(newIngredient.getQuantity()).build());
+			} else {
+				keptIngredients.add(ingredient);
+				ingredient.setName(newIngredient.getName());
+				ingredient.setQuantity(newIngredient.getQuantity());
+			}
+		}
+		ingredients.removeIf(ingredient -> !keptIngredients.contains(ingredient));
+		ingredients.addAll(addedIngredients);
+	}
+	
+	private Ingredient pollIngredient(final Deque<Ingredient> ingredients, final Set<Ingredient> keptIngredients) {
+		if (ingredients == null)
+			return null;
+		Ingredient ingredient = ingredients.poll();
+		while (ingredient != null && keptIngredients.contains(ingredient))
+			ingredient = ingredients.poll();
+		return ingredient;
+	}
+	
+	private void checkBulkLimit(final int size) {
+		if (size > bulkMaxItems)
+			throw new BulkLimitExceededException(
+					String.format("Bulk request can not have more than %d recipes!", bulkMaxItems));
+	}
+	
+	private Map<Long, Recipe> findRecipes(final Stream<Long> ids) {
+		final Set<Long> uniqueIds = ids.filter(Objects::nonNull).collect(Collectors.toSet());
+		if (uniqueIds.isEmpty())
+			return new HashMap<>();
+		return recipeRepository.findAllWithIngredientsByIdIn(uniqueIds).stream()
+				.collect(Collectors.toMap(Recipe::getId, Function.identity()));
+	}
+	
+	private List<RecipeName> findRecipeNames(final List<Recipe> recipes) {
+		final Set<String> names = recipes.stream().map(Recipe::getName).filter(Objects::nonNull)
+				.collect(Collectors.toCollection(HashSet::new));
+		if (names.isEmpty())
+			return new ArrayList<>();
+		return recipeRepository.findRecipeNamesByNameIn(names);
+	}
+	
+	private String validate(final Recipe recipe) {
+		Set<ConstraintViolation<Recipe>> violations = validator.validate(recipe);
+		if (violations.isEmpty())
+			return null;
+		return violations.stream().map(ConstraintViolation::getMessage).sorted().collect(Collectors.joining(" "));
+	}
+	
+	private List<Ingredient> copyIngredients(final List<Ingredient> ingredients) {
+		return ingredients.stream()
+				.map(ingredient -> Ingredient.builder().name(ingredient.getName()).quantity(ingredient.getQuantity()).build())
+				.collect(Collectors.toList());
 	}
 }
@@ -0,0 +1,316 @@
+package com.gorkem.recipe.service;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter.SseEventBuilder;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.gorkem.recipe.event.RecipeChangedEvent;
+import com.gorkem.recipe.model.Recipe;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import lombok.Data;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Pushes the committed recipe changes to server-sent event subscribers. Every change is serialized once, kept in a
+ * ring buffer for replay and offered to the bounded buffer of each subscriber, so publishing never waits on a client.
+ * A small writer pool drains the buffers, and a subscriber whose buffer fills up is closed and resumes from its
+ * Last-Event-ID when it reconnects. Subscribers hold no request thread while they wait for events.
+ * <p>
+ * A write to a client that stops reading blocks its writer thread until the container times the write out. A write
+ * that takes longer than the write timeout evicts its subscriber, and the pool gets a spare writer thread until the
+ * blocked one returns, so stalled clients never hold the writers of the others.
+ * <p>
+ * Event ids start with the startup time of the stream, so an id from before a restart, or one older than the ring
+ * buffer, is answered with a reset event and the client syncs with the changes endpoint instead.
+ *
+ * @author gorkemdemiray
+ */
+@Slf4j
+@Service
+public class RecipeStreamService implements DisposableBean {
+
+	public static final String SUBSCRIBERS = "recipe.stream.subscribers";
+	public static final String EVICTIONS = "recipe.stream.evictions";
+
+	public static final String CREATED = "created";
+	public static final String UPDATED = "updated";
+	public static final String DELETED = "deleted";
+	public static final String RESET = "reset";
+
+	private static final StreamEvent HEARTBEAT = new StreamEvent(null, null, null);
+	private static final long STALLED = -1;
+
+	private final ObjectMapper objectMapper;
+	private final ThreadPoolExecutor writerPool;
+	private final ExecutorService writer;
+	private final Counter evictions;
+	private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+	private final StreamEvent[] events;
+	private final int bufferSize;
+	private final long writeTimeoutMs;
+	private final long epoch = System.currentTimeMillis();
+	private long lastSequence;
+
+	public RecipeStreamService(ObjectMapper objectMapper, MeterRegistry meterRegistry,
+			@Value("${recipe.app.streamBufferSize}") int bufferSize,
+			@Value("${recipe.app.streamReplaySize}") int replaySize,
+			@Value("${recipe.app.streamWriterThreads}") int writerThreads,
+			@Value("${recipe.app.streamWriteTimeoutMs}") long writeTimeoutMs) {
+		this.objectMapper = objectMapper;
+		this.bufferSize = bufferSize;
+		this.writeTimeoutMs = writeTimeoutMs;
+		this.events = new StreamEvent[replaySize];
+		// at most one drain task per subscriber is queued, so the queue is bounded by the subscribers
+		this.writerPool = new ThreadPoolExecutor(writerThreads, writerThreads, 0L, TimeUnit.MILLISECONDS,
+				new LinkedBlockingQueue<>(), new CustomizableThreadFactory("recipe-stream-"));
+		this.writer = ExecutorServiceMetrics.monitor(meterRegistry, writerPool, "recipeStream");
+		this.evictions = meterRegistry.counter(EVICTIONS);
+		Gauge.builder(SUBSCRIBERS, subscribers, Set::size).register(meterRegistry);
+	}
+
+	/**
+	 * Subscribes to the recipe changes committed from now on, and to the ones after the given event id when the client
+	 * reconnects.
+	 */
+	public SseEmitter subscribe(final String lastEventId) {
+		return subscribe(new SseEmitter(), lastEventId);
+	}
+
+	SseEmitter subscribe(final SseEmitter emitter, final String lastEventId) {
+		final Subscriber subscriber = new Subscriber(emitter);
+		emitter.onCompletion(subscriber::close);
+		emitter.onTimeout(() -> {
+			subscriber.close();
+			emitter.complete();
+		});
+		emitter.onError(ex -> subscriber.close());
+		synchronized (events) {
+			if (lastEventId != null)
+				replay(subscriber, lastEventId);
+			subscribers.add(subscriber);
+		}
+		return emitter;
+	}
+
+	@TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+	public void onRecipeChanged(final RecipeChangedEvent event) {
+		try {
+			for (Recipe recipe : event.getSavedRecipes())
+				publish(event.isCreated() ? CREATED : UPDATED, objectMapper.writeValueAsString(recipe));
+			for (Long id : event.getDeletedIds())
+				publish(DELETED, objectMapper.writeValueAsString(Collections.singletonMap("id", id)));
+		} catch (JsonProcessingException ex) {
+			log.error(String.format("Recipe change could not be streamed: %s", ex.getMessage()));
+		}
+	}
+
+	/**
+	 * Keeps idle connections open through proxies and finds the clients that are gone.
+	 */
+	@Scheduled(fixedDelayString = "${recipe.app.streamHeartbeatMs}")
+	public void sendHeartbeat() {
+		subscribers.forEach(subscriber -> subscriber.offer(HEARTBEAT));
+	}
+
+	/**
+	 * Evicts the subscribers whose write takes longer than the write timeout.
+	 */
+	@Scheduled(fixedDelayString = "${recipe.app.streamWriteTimeoutMs}")
+	public void checkWrites() {
+		final long now = System.currentTimeMillis();
+		subscribers.forEach(subscriber -> subscriber.checkWrite(now));
+	}
+
+	@Override
+	public void destroy() {
+		subscribers.forEach(Subscriber::evict);
+		writer.shutdown();
+	}
+
+	private void publish(final String name, final String data) {
+		synchronized (events) {
+			final long sequence = ++lastSequence;
+			final StreamEvent event = new StreamEvent(epoch + "-" + sequence, name, data);
+			if (events.length > 0)
+				events[(int) (sequence % events.length)] = event;
+			subscribers.forEach(subscriber -> subscriber.offer(event));
+		}
+	}
+
+	/**
+	 * Adds a writer thread in place of one blocked on a stalled client. The maximum grows first, as the core size can
+	 * not exceed it.
+	 */
+	private synchronized void addWriter() {
+		writerPool.setMaximumPoolSize(writerPool.getMaximumPoolSize() + 1);
+		writerPool.setCorePoolSize(writerPool.getCorePoolSize() + 1);
+	}
+
+	private synchronized void removeWriter() {
+		writerPool.setCorePoolSize(writerPool.getCorePoolSize() - 1);
+		writerPool.setMaximumPoolSize(writerPool.getMaximumPoolSize() - 1);
+	}
+
+	/**
+	 * Offers the events after the given id, or a reset event when some of them are not kept anymore. Called while
+	 * holding the lock of the ring buffer, so no event is published in between.
+	 */
+	private void replay(final Subscriber subscriber, final String lastEventId) {
+		final long sequence = parseSequence(lastEventId);
+		final long missed = lastSequence - sequence;
+		if (sequence < 0 || missed < 0 || missed > events.length || missed > bufferSize) {
+			subscriber.offer(new StreamEvent(epoch + "-" + lastSequence, RESET, "{}"));
+			return;
+		}
+		for (long next = sequence + 1; next <= lastSequence; next++)
+			subscriber.offer(events[(int) (next % events.length)]);
+	}
+
+	private long parseSequence(final String eventId) {
+		final String prefix = epoch + "-";
+		if (!eventId.startsWith(prefix))
+			return -1;
+		try {
+			return Long.parseLong(eventId.substring(prefix.length()));
+		} catch (NumberFormatException ex) {
+			return -1;
+		}
+	}
+
+	/**
+	 * Event kept in the ring buffer. Event builders of the emitter are not reusable, so one is built per send.
+	 */
+	@Data
+	private static class StreamEvent {
+
+		private final String id;
+		private final String name;
+		private final String data;
+
+		SseEventBuilder toSse() {
+			if (name == null)
+				return SseEmitter.event().comment("heartbeat");
+			return SseEmitter.event().id(id).name(name).data(data);
+		}
+	}
+
+	/**
+	 * Subscriber with its bounded buffer. At most one writer thread drains a subscriber at a time, and a blocking
+	 * write to a slow client holds only that writer thread. The start time of the write in progress tells the write
+	 * timeout check how long it has been blocked.
+	 */
+	private class Subscriber implements Runnable {
+
+		private final SseEmitter emitter;
+		private final Queue<StreamEvent> buffer = new ArrayBlockingQueue<>(bufferSize);
+		private final AtomicBoolean scheduled = new AtomicBoolean();
+		private final AtomicLong writeStartedAt = new AtomicLong();
+		private volatile boolean evicted;
+		private volatile boolean closed;
+
+		Subscriber(SseEmitter emitter) {
+			this.emitter = emitter;
+		}
+
+		void offer(final StreamEvent event) {
+			if (closed)
+				return;
+			if (!buffer.offer(event)) {
+				evictions.increment();
+				evict();
+				return;
+			}
+			schedule();
+		}
+
+		/**
+		 * Stops the subscriber and leaves completing the response to the writer, so a publisher never waits on a
+		 * write in progress.
+		 */
+		void evict() {
+			evicted = true;
+			close();
+			schedule();
+		}
+
+		void close() {
+			closed = true;
+			subscribers.remove(this);
+		}
+
+		/**
+		 * Evicts the subscriber when its write started before the write timeout. Either this check marks the write
+		 * stalled or the writer ends it first, so the spare writer thread is added and removed exactly once.
+		 */
+		void checkWrite(final long now) {
+			final long startedAt = writeStartedAt.get();
+			if (startedAt <= 0 || now - startedAt < writeTimeoutMs || !writeStartedAt.compareAndSet(startedAt, STALLED))
+				return;
+			log.warn(String.format("Recipe stream write is blocked for %d ms, subscriber is evicted", now - startedAt));
+			evictions.increment();
+			evict();
+			addWriter();
+		}
+
+		@Override
+		public void run() {
+			try {
+				StreamEvent event;
+				while (!closed && (event = buffer.poll()) != null)
+					write(event);
+				if (evicted) {
+					buffer.clear();
+					emitter.complete();
+				}
+			} catch (IOException | IllegalStateException ex) {
+				// the client is gone, the emitter reports it to the container which completes the response
+				close();
+				buffer.clear();
+			} finally {
+				scheduled.set(false);
+			}
+			if (!buffer.isEmpty() && !closed)
+				schedule();
+		}
+
+		private void write(final StreamEvent event) throws IOException {
+			writeStartedAt.set(System.currentTimeMillis());
+			try {
+				emitter.send(event.toSse());
+			} finally {
+				if (writeStartedAt.getAndSet(0) == STALLED)
+					removeWriter();
+			}
+		}
+
+		private void schedule() {
+			if (scheduled.compareAndSet(false, true))
+				writer.execute(this);
+		}
+	}
+}
@@ -0,0 +1,107 @@
+package com.gorkem.recipe.service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.function.Function;
+
+import org.springframework.http.MediaType;
+
+import com.gorkem.recipe.payload.response.CursorPage;
+
+import lombok.Data;
+
+/**
+ * Version of a recipe or a list of recipes, as a strong etag and a last modified timestamp in epoch milliseconds.
+ * Etags are built from the version column, which every update increments, so two updates in the same millisecond
+ * never share an etag. Timestamps are compared in milliseconds, which every supported database keeps. The etag sent
+ * to a client also names the view, the media type and the content coding of the body, since each representation has
+ * its own bytes.
+ *
+ * @author gorkemdemiray
+ */
+@Data
+public class RecipeVersion {
+
+	private static final String ANY = "*";
+	private static final String REPRESENTATION_SEPARATOR = ";";
+
+	private final String eTag;
+	private final long lastModified;
+
+	public static RecipeVersion of(final Long id, final Long version, final LocalDateTime lastModified) {
+		return new RecipeVersion(quote(String.format("%d-%d", id, version)), toEpochMilli(lastModified));
+	}
+
+	/**
+	 * Version of a page, which changes when any recipe of the page is modified, deleted or added, or when the page
+	 * gets or loses a next page.
+	 */
+	public static <T> RecipeVersion of(final CursorPage<T> page, final Function<T, Long> id,
+			final Function<T, Long> version, final Function<T, LocalDateTime> lastModified) {
+		final StringBuilder versions = new StringBuilder();
+		long pageLastModified = -1;
+		for (T item : page.getContent()) {
+			long epochMilli = toEpochMilli(lastModified.apply(item));
+			versions.append(id.apply(item)).append(':').append(version.apply(item)).append(';');
+			pageLastModified = Math.max(pageLastModified, epochMilli);
+		}
+		versions.append(page.getNextCursor());
+		return new RecipeVersion(quote(hash(versions.toString())), pageLastModified);
+	}
+
+	/**
+	 * Version of all recipes, which changes when a recipe is modified, added or deleted.
+	 */
+	public static RecipeVersion of(final long count, final long versionSum, final LocalDateTime lastModified) {
+		final long epochMilli = toEpochMilli(lastModified);
+		return new RecipeVersion(quote(String.format("all-%d-%d-%x", count, versionSum, epochMilli)), epochMilli);
+	}
+
+	/**
+	 * Returns this version for the given view, media type and content coding of a body. The coding is null for a body
+	 * that is never compressed.
+	 */
+	public RecipeVersion forRepresentation(final String view, final MediaType mediaType, final String contentCoding) {
+		String representation = String.join(REPRESENTATION_SEPARATOR, eTag.substring(1, eTag.length() - 1), view,
+				mediaType.getSubtype());
+		if (contentCoding != null)
+			representation = String.join(REPRESENTATION_SEPARATOR, representation, contentCoding);
+		return new RecipeVersion(quote(representation), lastModified);
+	}
+
+	/**
+	 * Checks the value of an If-Match header against this version with strong comparison, so weak etags never match.
+	 * Any representation of this version matches, as the recipe is the same whatever body the client read it from.
+	 */
+	public boolean matches(final String ifMatch) {
+		return Arrays.stream(ifMatch.split(",")).map(String::trim)
+				.anyMatch(tag -> tag.equals(ANY) || withoutRepresentation(tag).equals(eTag));
+	}
+
+	private static String withoutRepresentation(final String tag) {
+		final int separator = tag.indexOf(REPRESENTATION_SEPARATOR);
+		return separator < 0 || !tag.startsWith("\"") ? tag : quote(tag.substring(1, separator));
+	}
+
+	private static long toEpochMilli(final LocalDateTime localDateTime) {
+		return localDateTime == null ? -1 : localDateTime.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+	}
+
+	private static String quote(final String tag) {
+		return "\"" + tag + "\"";
+	}
+
+	private static String hash(final String value) {
+		try {
+			byte[] digest = MessageDigest.getInstance("SHA-256").digest(value.getBytes(StandardCharsets.UTF_8));
+			return Base64.getUrlEncoder().withoutPadding().encodeToString(Arrays.copyOf(digest, 16));
+		} catch (NoSuchAlgorithmException ex) {
+			throw new IllegalStateException(ex);
+		}
+	}
+}
@@ -38,6 +38,11 @@ public class UserDetailsImpl implements UserDetails {
 		List<GrantedAuthority> authorities = AuthorityUtils.commaSeparatedStringToAuthorityList("ROLE_USER");
 		return new UserDetailsImpl(user.getUsername(), user.getEmail(), user.getPassword(), authorities);
 	}
+	
+	public static UserDetailsImpl build(String username, String email) {
+		List<GrantedAuthority> authorities = AuthorityUtils.commaSeparatedStringToAuthorityList("ROLE_USER");
+		return new UserDetailsImpl(username, email, null, authorities);
+	}
 
 	@Override
 	public Collection<? extends GrantedAuthority> getAuthorities() {
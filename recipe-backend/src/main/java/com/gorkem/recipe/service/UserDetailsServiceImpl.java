@@ -1,33 +1,53 @@
 package com.gorkem.recipe.service;
 
+import org.springframework.security.core.userdetails.UserCache;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import com.gorkem.recipe.config.PrimaryRead;
 import com.gorkem.recipe.exception.UserNotFoundException;
 import com.gorkem.recipe.model.User;
 import com.gorkem.recipe.repository.UserRepository;
 
 /**
- * User details service implementation to be used for authentication.
+ * User details service implementation to be used for authentication. It also stores the password hashes that are
+ * upgraded to the configured bcrypt cost on sign in.
  * 
  * @author gorkemdemiray
  */
 @Service
-public class UserDetailsServiceImpl implements UserDetailsService {
+public class UserDetailsServiceImpl implements UserDetailsService, UserDetailsPasswordService {
 
 	private final UserRepository userRepository;
+	private final UserCache userCache;
 
-	public UserDetailsServiceImpl(UserRepository userRepository) {
+	public UserDetailsServiceImpl(UserRepository userRepository, UserCache userCache) {
 		this.userRepository = userRepository;
+		this.userCache = userCache;
 	}
 
 	@Override
+	@Transactional(readOnly = true)
+	@PrimaryRead
 	public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
 		User user = userRepository.findByUsername(username)
 				.orElseThrow(() -> new UserNotFoundException(String.format("Invalid user name: %s", username)));
 		return UserDetailsImpl.build(user);
 	}
 
+	@Override
+	@Transactional
+	public UserDetails updatePassword(UserDetails userDetails, String newPassword) {
+		User user = userRepository.findByUsername(userDetails.getUsername()).orElseThrow(
+				() -> new UserNotFoundException(String.format("Invalid user name: %s", userDetails.getUsername())));
+		user.setPassword(newPassword);
+		User savedUser = userRepository.save(user);
+		userCache.removeUserFromCache(savedUser.getUsername());
+		return UserDetailsImpl.build(savedUser);
+	}
+
 }
@@ -4,6 +4,7 @@ import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UserCache;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
@@ -12,6 +13,7 @@ import com.gorkem.recipe.model.User;
 import com.gorkem.recipe.payload.request.SignInRequest;
 import com.gorkem.recipe.payload.request.SignUpRequest;
 import com.gorkem.recipe.repository.UserRepository;
+import com.gorkem.recipe.security.AuthenticationThrottle;
 import com.gorkem.recipe.security.JwtUtil;
 
 /**
@@ -26,16 +28,23 @@ public class UserService {
 	private final PasswordEncoder passwordEncoder;
 	private final AuthenticationManager authenticationManager;
 	private final JwtUtil jwtUtil;
+	private final UserCache userCache;
+	private final AuthenticationThrottle authenticationThrottle;
 
 	public UserService(UserRepository userRepository, PasswordEncoder passwordEncoder,
-			AuthenticationManager authenticationManager, JwtUtil jwtUtil) {
+			AuthenticationManager authenticationManager, JwtUtil jwtUtil, UserCache userCache,
+			AuthenticationThrottle authenticationThrottle) {
 		this.userRepository = userRepository;
 		this.passwordEncoder = passwordEncoder;
 		this.authenticationManager = authenticationManager;
 		this.jwtUtil = jwtUtil;
+		this.userCache = userCache;
+		this.authenticationThrottle = authenticationThrottle;
 	}
 
-	public User registerUser(final SignUpRequest signUpRequest) {
+	public User registerUser(final SignUpRequest signUpRequest, final String clientAddress) {
+		authenticationThrottle.checkAddress(clientAddress);
+
 		if (userRepository.existsByUsername(signUpRequest.getUsername()))
 			throw new UserAlreadyExistsException(
 					String.format("Username is already in use: %s", signUpRequest.getUsername()));
@@ -47,10 +56,14 @@ public class UserService {
 		User user = User.builder().username(signUpRequest.getUsername()).email(signUpRequest.getEmail())
 				.password(passwordEncoder.encode(signUpRequest.getPassword())).build();
 
-		return userRepository.save(user);
+		User savedUser = userRepository.save(user);
+		userCache.removeUserFromCache(savedUser.getUsername());
+		return savedUser;
 	}
 
-	public String authenticateUser(final SignInRequest signInRequest) {
+	public String authenticateUser(final SignInRequest signInRequest, final String clientAddress) {
+		authenticationThrottle.checkSignIn(signInRequest.getUsername(), clientAddress);
+
 		Authentication authentication = authenticationManager.authenticate(
 				new UsernamePasswordAuthenticationToken(signInRequest.getUsername(), signInRequest.getPassword()));
 		SecurityContextHolder.getContext().setAuthentication(authentication);
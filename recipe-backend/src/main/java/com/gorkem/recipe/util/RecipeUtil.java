@@ -1,7 +1,26 @@
 package com.gorkem.recipe.util;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.Base64;
+
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.LowerCaseFilter;
+import org.apache.lucene.analysis.TokenStream;
+import org.apache.lucene.analysis.Tokenizer;
+import org.apache.lucene.analysis.en.KStemFilter;
+import org.apache.lucene.analysis.miscellaneous.ASCIIFoldingFilter;
+import org.apache.lucene.analysis.standard.StandardTokenizer;
+import org.apache.lucene.analysis.tokenattributes.CharTermAttribute;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import com.gorkem.recipe.exception.InvalidCursorException;
 
 /**
  * Utility class for recipe operations.
@@ -10,10 +29,74 @@ import java.time.format.DateTimeFormatter;
  */
 public class RecipeUtil {
 	
-	private static final String DATETIME_PATTERN = "dd-MM-yyyy HH:mm";
+	public static final String DATETIME_PATTERN = "dd-MM-yyyy HH:mm";
+	private static final DateTimeFormatter DATETIME_FORMATTER = DateTimeFormatter.ofPattern(DATETIME_PATTERN);
+	private static final String CURSOR_PREFIX = "id:";
+	private static final Analyzer INGREDIENT_ANALYZER = new Analyzer() {
+		@Override
+		protected TokenStreamComponents createComponents(String fieldName) {
+			Tokenizer tokenizer = new StandardTokenizer();
+			TokenStream tokenStream = new KStemFilter(new ASCIIFoldingFilter(new LowerCaseFilter(tokenizer)));
+			return new TokenStreamComponents(tokenizer, tokenStream);
+		}
+	};
 	
 	public static String convertDateTimeToString(LocalDateTime localDateTime) {
-		DateTimeFormatter formatter = DateTimeFormatter.ofPattern(DATETIME_PATTERN);
-		return formatter.format(localDateTime);
+		return DATETIME_FORMATTER.format(localDateTime);
+	}
+	
+	public static String encodeCursor(Long id) {
+		return Base64.getUrlEncoder().withoutPadding()
+				.encodeToString((CURSOR_PREFIX + id).getBytes(StandardCharsets.UTF_8));
+	}
+	
+	public static Long decodeCursor(String cursor) {
+		try {
+			String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+			if (!decoded.startsWith(CURSOR_PREFIX))
+				throw new InvalidCursorException(String.format("Invalid cursor: %s", cursor));
+			return Long.valueOf(decoded.substring(CURSOR_PREFIX.length()));
+		} catch (IllegalArgumentException ex) {
+			throw new InvalidCursorException(String.format("Invalid cursor: %s", cursor));
+		}
+	}
+	
+	/**
+	 * Normalizes an ingredient name so that spellings like "Cherry Tomatoes" and "cherry-tomato" map to the same
+	 * ingredient: lower case, no accents or punctuation, single spaces and plural words reduced to singular.
+	 */
+	public static String normalizeIngredientName(String name) {
+		StringBuilder normalized = new StringBuilder(name.length());
+		try (TokenStream tokenStream = INGREDIENT_ANALYZER.tokenStream("name", name)) {
+			CharTermAttribute term = tokenStream.addAttribute(CharTermAttribute.class);
+			tokenStream.reset();
+			while (tokenStream.incrementToken()) {
+				if (normalized.length() > 0)
+					normalized.append(' ');
+				normalized.append(term);
+			}
+			tokenStream.end();
+		} catch (IOException ex) {
+			throw new UncheckedIOException(ex);
+		}
+		return normalized.toString();
+	}
+	
+	/**
+	 * Applies a JSON merge patch (RFC 7396) to a copy of the target: members of the patch replace the target members,
+	 * objects are merged recursively, null removes the member and anything else, arrays included, is replaced whole.
+	 */
+	public static JsonNode mergePatch(JsonNode target, JsonNode patch) {
+		if (!patch.isObject())
+			return patch;
+		ObjectNode result = target != null && target.isObject() ? ((ObjectNode) target).deepCopy()
+				: JsonNodeFactory.instance.objectNode();
+		patch.fields().forEachRemaining(member -> {
+			if (member.getValue().isNull())
+				result.remove(member.getKey());
+			else
+				result.set(member.getKey(), mergePatch(result.get(member.getKey()), member.getValue()));
+		});
+		return result;
 	}
 }
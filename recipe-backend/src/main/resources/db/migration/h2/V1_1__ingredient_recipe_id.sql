@@ -0,0 +1,10 @@
+-- ingredients were linked to their recipe through a join table, they keep the id of their recipe instead
+alter table ingredient add column recipe_id bigint;
+update ingredient i set recipe_id = (select ri.recipe_id from recipe_ingredients ri where ri.ingredients_id = i.id);
+-- ingredients without a recipe could not be read anymore
+delete from ingredient where recipe_id is null;
+drop table recipe_ingredients;
+alter table ingredient alter column recipe_id set not null;
+
+create index idx_ingredient_recipe_id on ingredient (recipe_id);
+alter table ingredient add constraint fk_ingredient_recipe foreign key (recipe_id) references recipe (id);
@@ -0,0 +1,4 @@
+-- ids move from identity columns to pooled sequences, so inserts can be batched. H2 databases are the in memory
+-- test databases, which are always migrated empty, so the sequences start at 1 and the identity defaults stay unused
+create sequence recipe_seq start with 1 increment by 50;
+create sequence ingredient_seq start with 1 increment by 50;
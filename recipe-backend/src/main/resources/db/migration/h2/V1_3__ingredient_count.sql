@@ -0,0 +1,3 @@
+-- kept in sync with the ingredients on every write, so recipe summaries do not read the ingredient table
+alter table recipe add column ingredient_count integer;
+update recipe r set ingredient_count = (select count(*) from ingredient i where i.recipe_id = r.id);
@@ -0,0 +1,38 @@
+-- schema as hibernate ddl-auto=create-drop created it before the migrations, except for the cooking instructions:
+-- text is a clob in h2, which hibernate does not validate as a string column
+
+create table recipe (
+	id bigint generated by default as identity,
+	cooking_instructions varchar,
+	creation_time varchar(255),
+	last_modified timestamp,
+	name varchar(255),
+	serving_capacity integer,
+	vegetarian boolean,
+	primary key (id)
+);
+
+create table ingredient (
+	id bigint generated by default as identity,
+	name varchar(255),
+	quantity decimal(19,2),
+	primary key (id)
+);
+
+create table recipe_ingredients (
+	recipe_id bigint not null,
+	ingredients_id bigint not null
+);
+
+create table user (
+	id bigint generated by default as identity,
+	email varchar(255),
+	password varchar(255),
+	username varchar(255),
+	primary key (id)
+);
+
+alter table recipe_ingredients add constraint UK_adlqiu427fu7igg7385el0xjh unique (ingredients_id);
+alter table user add constraint UKf9dvvibvpfsldnu8wh3enop4i unique (username, email);
+alter table recipe_ingredients add constraint FKg8ssng1dqiwgcptjptldels74 foreign key (ingredients_id) references ingredient (id);
+alter table recipe_ingredients add constraint FKhnsmvxdlwxqq6x2wbgnoef5gr foreign key (recipe_id) references recipe (id);
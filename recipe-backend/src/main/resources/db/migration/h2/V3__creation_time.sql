@@ -0,0 +1,8 @@
+-- creation times were kept as dd-MM-yyyy HH:mm strings, which sort by day of month and can not be range queried
+alter table recipe add column created_at timestamp;
+update recipe set created_at = coalesce(parsedatetime(creation_time, 'dd-MM-yyyy HH:mm'), last_modified);
+alter table recipe drop column creation_time;
+alter table recipe alter column created_at rename to creation_time;
+
+-- recipe lists are sorted and filtered by creation time
+create index idx_recipe_creation_time on recipe (creation_time, id);
@@ -0,0 +1,10 @@
+-- ingredients were linked to their recipe through a join table, they keep the id of their recipe instead
+alter table ingredient add column recipe_id bigint;
+update ingredient i join recipe_ingredients ri on ri.ingredients_id = i.id set i.recipe_id = ri.recipe_id;
+-- ingredients without a recipe could not be read anymore
+delete from ingredient where recipe_id is null;
+drop table recipe_ingredients;
+alter table ingredient modify recipe_id bigint not null;
+
+create index idx_ingredient_recipe_id on ingredient (recipe_id);
+alter table ingredient add constraint fk_ingredient_recipe foreign key (recipe_id) references recipe (id);
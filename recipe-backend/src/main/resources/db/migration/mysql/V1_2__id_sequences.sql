@@ -0,0 +1,12 @@
+-- ids move from auto increment to pooled sequence tables, so inserts can be batched. A table holds the first id of
+-- the next block of 50, so it starts right after the current ids
+alter table ingredient drop foreign key fk_ingredient_recipe;
+alter table recipe modify id bigint not null;
+alter table ingredient modify id bigint not null;
+alter table ingredient add constraint fk_ingredient_recipe foreign key (recipe_id) references recipe (id);
+
+create table recipe_seq (next_val bigint) engine=InnoDB;
+insert into recipe_seq select coalesce(max(id), 0) + 1 from recipe;
+
+create table ingredient_seq (next_val bigint) engine=InnoDB;
+insert into ingredient_seq select coalesce(max(id), 0) + 1 from ingredient;
@@ -0,0 +1,2 @@
+-- optimistic locking of recipe updates
+alter table recipe add column version bigint default 0 not null;
@@ -0,0 +1,10 @@
+-- changes are synced by last modification time, and deleted recipes are kept as tombstones for a while
+create index idx_recipe_last_modified on recipe (last_modified, id);
+
+create table recipe_tombstone (
+	recipe_id bigint not null,
+	deleted_at datetime(6),
+	primary key (recipe_id)
+) engine=InnoDB;
+
+create index idx_recipe_tombstone_deleted_at on recipe_tombstone (deleted_at, recipe_id);
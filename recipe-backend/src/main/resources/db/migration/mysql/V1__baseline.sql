@@ -0,0 +1,38 @@
+-- schema as hibernate ddl-auto=update created it before the migrations, production databases are baselined at this
+-- version and upgraded by the later ones
+
+create table recipe (
+	id bigint not null auto_increment,
+	cooking_instructions TEXT,
+	creation_time varchar(255),
+	last_modified datetime(6),
+	name varchar(255),
+	serving_capacity integer,
+	vegetarian bit,
+	primary key (id)
+) engine=InnoDB;
+
+create table ingredient (
+	id bigint not null auto_increment,
+	name varchar(255),
+	quantity decimal(19,2),
+	primary key (id)
+) engine=InnoDB;
+
+create table recipe_ingredients (
+	recipe_id bigint not null,
+	ingredients_id bigint not null
+) engine=InnoDB;
+
+create table user (
+	id bigint not null auto_increment,
+	email varchar(255),
+	password varchar(255),
+	username varchar(255),
+	primary key (id)
+) engine=InnoDB;
+
+alter table recipe_ingredients add constraint UK_adlqiu427fu7igg7385el0xjh unique (ingredients_id);
+alter table user add constraint UKf9dvvibvpfsldnu8wh3enop4i unique (username, email);
+alter table recipe_ingredients add constraint FKg8ssng1dqiwgcptjptldels74 foreign key (ingredients_id) references ingredient (id);
+alter table recipe_ingredients add constraint FKhnsmvxdlwxqq6x2wbgnoef5gr foreign key (recipe_id) references recipe (id);
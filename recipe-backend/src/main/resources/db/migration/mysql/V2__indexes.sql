@@ -0,0 +1,7 @@
+-- names are looked up on every create and update
+create unique index uk_recipe_name on recipe (name);
+
+-- the composite key let a username or an email be taken twice and could not serve lookups by email
+alter table user drop index UKf9dvvibvpfsldnu8wh3enop4i;
+create unique index uk_user_username on user (username);
+create unique index uk_user_email on user (email);
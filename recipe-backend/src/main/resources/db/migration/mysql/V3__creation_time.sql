@@ -0,0 +1,8 @@
+-- creation times were kept as dd-MM-yyyy HH:mm strings, which sort by day of month and can not be range queried
+alter table recipe add column created_at datetime(6);
+update recipe set created_at = coalesce(str_to_date(creation_time, '%d-%m-%Y %H:%i'), last_modified);
+alter table recipe drop column creation_time;
+alter table recipe change column created_at creation_time datetime(6);
+
+-- recipe lists are sorted and filtered by creation time
+create index idx_recipe_creation_time on recipe (creation_time, id);
@@ -0,0 +1,102 @@
+package com.gorkem.recipe.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Collections;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.SpringBootTest.WebEnvironment;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.annotation.DirtiesContext;
+
+import com.gorkem.recipe.model.Recipe;
+import com.gorkem.recipe.payload.request.SignInRequest;
+import com.gorkem.recipe.payload.request.SignUpRequest;
+import com.gorkem.recipe.payload.response.JwtResponse;
+import com.gorkem.recipe.service.RecipeService;
+import com.gorkem.recipe.util.TestUtil;
+
+/**
+ * Compression config test class. Runs on a real Tomcat, which is where responses are compressed.
+ *
+ * @author gorkemdemiray
+ */
+@SpringBootTest(webEnvironment = WebEnvironment.RANDOM_PORT)
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+public class CompressionConfigTest {
+
+	private static final String BEARER = "Bearer ";
+
+	@Autowired
+	private TestRestTemplate restTemplate;
+
+	@Autowired
+	private RecipeService recipeService;
+
+	@Test
+	void GivenPageLargerThanThreshold_WhenTriedForGettingItWithGzip_ThenResponseIsCompressedWithETag() {
+		createRecipes();
+		
+		ResponseEntity<byte[]> response = getRecipes(getJwtToken(), "gzip", null);
+		
+		assertEquals(HttpStatus.OK, response.getStatusCode());
+		assertNotNull(response.getHeaders().getETag());
+		assertEquals(Collections.singletonList("gzip"), response.getHeaders().get(HttpHeaders.CONTENT_ENCODING));
+	}
+	
+	@Test
+	void GivenPageLargerThanThreshold_WhenTriedForGettingItWithAndWithoutGzip_ThenETagsDiffer() {
+		createRecipes();
+		String jwt = getJwtToken();
+		
+		ResponseEntity<byte[]> compressed = getRecipes(jwt, "gzip", null);
+		ResponseEntity<byte[]> identity = getRecipes(jwt, "identity", compressed.getHeaders().getETag());
+		
+		assertEquals(HttpStatus.OK, identity.getStatusCode());
+		assertNull(identity.getHeaders().get(HttpHeaders.CONTENT_ENCODING));
+		assertNotEquals(compressed.getHeaders().getETag(), identity.getHeaders().getETag());
+		assertTrue(compressed.getHeaders().getVary().stream().anyMatch(HttpHeaders.ACCEPT_ENCODING::equalsIgnoreCase));
+		assertTrue(identity.getHeaders().getVary().stream().anyMatch(HttpHeaders.ACCEPT_ENCODING::equalsIgnoreCase));
+		assertEquals(HttpStatus.NOT_MODIFIED,
+				getRecipes(jwt, "gzip", compressed.getHeaders().getETag()).getStatusCode());
+	}
+	
+	private void createRecipes() {
+		for (int i = 0; i < 5; i++) {
+			Recipe recipe = TestUtil.getRecipe();
+			recipe.setName(recipe.getName() + " " + i);
+			recipeService.createRecipe(recipe);
+		}
+	}
+	
+	private ResponseEntity<byte[]> getRecipes(String jwt, String acceptEncoding, String ifNoneMatch) {
+		HttpHeaders headers = new HttpHeaders();
+		headers.set(HttpHeaders.AUTHORIZATION, BEARER + jwt);
+		headers.set(HttpHeaders.ACCEPT_ENCODING, acceptEncoding);
+		if (ifNoneMatch != null)
+			headers.setIfNoneMatch(ifNoneMatch);
+		return restTemplate.exchange("/api/recipes", HttpMethod.GET, new HttpEntity<>(headers), byte[].class);
+	}
+
+	private String getJwtToken() {
+		ResponseEntity<String> signUp = restTemplate.postForEntity("/api/auth/signup", SignUpRequest.builder()
+				.username("user").email("user@user.com").password("password").build(), String.class);
+		assertEquals(HttpStatus.CREATED, signUp.getStatusCode());
+		
+		ResponseEntity<JwtResponse> signIn = restTemplate.postForEntity("/api/auth/signin",
+				SignInRequest.builder().username("user").password("password").build(), JwtResponse.class);
+		assertEquals(HttpStatus.OK, signIn.getStatusCode());
+		return signIn.getBody().getJwt();
+	}
+}
@@ -0,0 +1,171 @@
+package com.gorkem.recipe.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.Collections;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.gorkem.recipe.exception.NoRecipesFoundException;
+import com.gorkem.recipe.model.Recipe;
+import com.gorkem.recipe.payload.request.SignInRequest;
+import com.gorkem.recipe.payload.request.SignUpRequest;
+import com.gorkem.recipe.payload.response.JwtResponse;
+import com.gorkem.recipe.security.JwtAuthorizationFilter;
+import com.gorkem.recipe.service.RecipeService;
+import com.gorkem.recipe.util.TestUtil;
+
+/**
+ * Replica routing integration test class. The replica is a second in memory database with the same schema that never
+ * receives the writes of the primary, so a read shows which of them it ran on.
+ *
+ * @author gorkemdemiray
+ */
+@SpringBootTest(properties = ReplicaRoutingDataSourceTest.REPLICA_URL_PROPERTY)
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+public class ReplicaRoutingDataSourceTest {
+
+	private static final String BEARER = "Bearer ";
+
+	static final String REPLICA_URL = "jdbc:h2:mem:recipe-replica;DB_CLOSE_DELAY=-1";
+	static final String REPLICA_URL_PROPERTY = "recipe.datasource.replica.jdbc-url = " + REPLICA_URL;
+
+	@Autowired
+	private RecipeService recipeService;
+
+	@Autowired
+	private WebApplicationContext webApplicationContext;
+
+	@Autowired
+	private JwtAuthorizationFilter jwtAuthorizationFilter;
+
+	@Autowired
+	private ObjectMapper objectMapper;
+
+	private MockMvc mockMvc;
+
+	@BeforeAll
+	static void migrateReplica() {
+		Flyway.configure().dataSource(REPLICA_URL, "root", "password").locations("classpath:db/migration/h2").load()
+				.migrate();
+	}
+
+	@BeforeEach
+	void setUp() {
+		mockMvc = MockMvcBuilders.webAppContextSetup(webApplicationContext).addFilters(jwtAuthorizationFilter).build();
+	}
+
+	@AfterEach
+	void clearAuthentication() {
+		SecurityContextHolder.clearContext();
+	}
+
+	@Test
+	void GivenRecipeOnPrimary_WhenTriedForReadingInReadOnlyTransaction_ThenReplicaIsRead() throws Exception {
+		recipeService.createRecipe(TestUtil.getRecipe());
+
+		assertThrows(NoRecipesFoundException.class, () -> {
+			recipeService.getAllRecipes();
+		});
+	}
+
+	/**
+	 * Cached recipes and pages are shared by all clients, and changes are paged by time, so a replica lagging behind
+	 * must not serve them.
+	 */
+	@Test
+	void GivenRecipeOnPrimary_WhenTriedForCachedReadsAndChanges_ThenPrimaryIsRead() throws Exception {
+		Recipe recipe = recipeService.createRecipe(TestUtil.getRecipe());
+
+		TestUtil.verifyResults(recipeService.getRecipe(recipe.getId()), TestUtil.getRecipe());
+		assertEquals(1, recipeService.getRecipes(null, null).getContent().size());
+		assertEquals(1, recipeService.getRecipeSummaries(null, null).getContent().size());
+		assertEquals(1, recipeService.getChanges(null, null).getRecipes().size());
+	}
+
+	@Test
+	void GivenRecipeWrittenByUser_WhenTriedForReadingItBack_ThenPrimaryIsRead() throws Exception {
+		SecurityContextHolder.getContext().setAuthentication(
+				new UsernamePasswordAuthenticationToken("username", null, Collections.emptyList()));
+		recipeService.createRecipe(TestUtil.getRecipe());
+
+		TestUtil.verifyResults(recipeService.getAllRecipes().get(0), TestUtil.getRecipe());
+	}
+
+	/**
+	 * Goes through the filters and the dispatcher like a real request, where a session left open for the whole
+	 * request would keep the connection of its first transaction.
+	 */
+	@Test
+	void GivenRecipeCreatedThroughApi_WhenTriedForReadingItBack_ThenOnlyItsWriterListsItFromThePrimary() throws Exception {
+		String writerJwt = getJwtToken("writer");
+		String readerJwt = getJwtToken("reader");
+
+		String json = mockMvc.perform(post("/api/recipes")
+				.content(objectMapper.writeValueAsString(TestUtil.getRecipe()))
+				.header(HttpHeaders.AUTHORIZATION, BEARER + writerJwt)
+				.contentType(MediaType.APPLICATION_JSON))
+				.andExpect(status().isCreated())
+				.andReturn()
+				.getResponse()
+				.getContentAsString();
+		long id = objectMapper.readTree(json).get("id").asLong();
+
+		mockMvc.perform(get("/api/recipes")
+				.param("unpaged", "true")
+				.header(HttpHeaders.AUTHORIZATION, BEARER + readerJwt))
+				.andExpect(status().isNotFound());
+
+		mockMvc.perform(get("/api/recipes")
+				.param("unpaged", "true")
+				.header(HttpHeaders.AUTHORIZATION, BEARER + writerJwt))
+				.andExpect(status().isOk());
+
+		mockMvc.perform(get(String.format("/api/recipes/%d", id))
+				.header(HttpHeaders.AUTHORIZATION, BEARER + readerJwt))
+				.andExpect(status().isOk());
+	}
+
+	/**
+	 * Signs up and in from the same address, which the sign up pins to the primary, so the new user can be read back
+	 * by the sign in and by the jwt filter.
+	 */
+	private String getJwtToken(String username) throws Exception {
+		mockMvc.perform(post("/api/auth/signup")
+				.content(objectMapper.writeValueAsString(SignUpRequest.builder().username(username)
+						.email(username + "@user.com").password("password").build()))
+				.contentType(MediaType.APPLICATION_JSON))
+				.andExpect(status().isCreated());
+
+		String json = mockMvc.perform(post("/api/auth/signin")
+				.content(objectMapper.writeValueAsString(
+						SignInRequest.builder().username(username).password("password").build()))
+				.contentType(MediaType.APPLICATION_JSON))
+				.andExpect(status().isOk())
+				.andReturn()
+				.getResponse()
+				.getContentAsString();
+		// sign in leaves the user in the security context of the test thread
+		SecurityContextHolder.clearContext();
+		return objectMapper.readValue(json, JwtResponse.class).getJwt();
+	}
+}
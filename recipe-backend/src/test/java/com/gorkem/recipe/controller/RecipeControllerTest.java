@@ -1,23 +1,43 @@
 package com.gorkem.recipe.controller;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.hasItem;
 import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.matchesPattern;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Collections;
+
+import javax.persistence.EntityManagerFactory;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.security.core.userdetails.UserCache;
 import org.springframework.test.annotation.DirtiesContext;
 import org.springframework.test.annotation.DirtiesContext.ClassMode;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.ResultActions;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 import org.springframework.web.bind.MethodArgumentNotValidException;
@@ -25,16 +45,26 @@ import org.springframework.web.bind.MissingRequestHeaderException;
 import org.springframework.web.context.WebApplicationContext;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.gorkem.recipe.config.CacheConfig;
+import com.gorkem.recipe.exception.BulkLimitExceededException;
+import com.gorkem.recipe.exception.CustomExceptionHandler;
+import com.gorkem.recipe.exception.InvalidCursorException;
+import com.gorkem.recipe.exception.InvalidPatchException;
+import com.gorkem.recipe.exception.InvalidSearchException;
 import com.gorkem.recipe.exception.NoRecipesFoundException;
 import com.gorkem.recipe.exception.RecipeAlreadyExistsException;
+import com.gorkem.recipe.exception.RecipeModifiedException;
 import com.gorkem.recipe.exception.RecipeNotFoundException;
 import com.gorkem.recipe.model.Recipe;
 import com.gorkem.recipe.payload.request.SignInRequest;
 import com.gorkem.recipe.payload.request.SignUpRequest;
 import com.gorkem.recipe.payload.response.JwtResponse;
 import com.gorkem.recipe.security.JwtAuthorizationFilter;
+import com.gorkem.recipe.service.ChangesToken;
 import com.gorkem.recipe.util.TestUtil;
 
+import io.micrometer.core.instrument.MeterRegistry;
+
 /**
  * Recipe controller integration test class.
  * 
@@ -56,6 +86,18 @@ public class RecipeControllerTest {
 
 	@Autowired
 	private ObjectMapper objectMapper;
+	
+	@Autowired
+	private UserCache userCache;
+	
+	@Autowired
+	private MeterRegistry meterRegistry;
+	
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+	
+	@Autowired
+	private CacheManager cacheManager;
 
 	private MockMvc mockMvc;
 
@@ -91,6 +133,19 @@ public class RecipeControllerTest {
 				.andExpect(status().isForbidden());
 	}
 	
+	@Test
+	void GivenValidJwtToken_WhenTriedForAPICall_ThenPrincipalIsCached() throws Exception {
+		String jwt = getJwtToken();
+		assertThat(userCache.getUserFromCache("username")).isNull();
+		
+		mockMvc.perform(get("/api/recipes")
+				.header(AUTHORIZATION, BEARER + jwt)
+				.contentType(MediaType.APPLICATION_JSON))
+				.andExpect(status().isNotFound());
+		
+		assertThat(userCache.getUserFromCache("username")).isNotNull();
+	}
+	
 	@Test
 	void GivenValidJwtToken_WhenTriedForCreatingRecipeWithInvalidData_ThenResponseIsBadRequest() throws Exception {
 		String jwt = getJwtToken();
@@ -146,6 +201,8 @@ public class RecipeControllerTest {
 				.getResolvedException();
 		
 		assertThat(exception).isExactlyInstanceOf(RecipeNotFoundException.class);
+		assertEquals(1, meterRegistry.get(CustomExceptionHandler.EXCEPTIONS)
+				.tag("exception", RecipeNotFoundException.class.getSimpleName()).tag("status", "404").counter().count());
 	}
 	
 	@Test
@@ -166,6 +223,25 @@ public class RecipeControllerTest {
 		TestUtil.verifyResults(savedRecipe, recipe);
 	}
 	
+	@Test
+	void GivenCborAccept_WhenTriedForGettingExistingRecipe_ThenResponseIsCbor() throws Exception {
+		String jwt = getJwtToken();
+		Recipe savedRecipe = deserializeRecipe(createRecipe(jwt));
+		
+		byte[] cbor = mockMvc.perform(get(String.format("/api/recipes/%d", savedRecipe.getId()))
+				.header(AUTHORIZATION, BEARER + jwt)
+				.accept(MediaType.APPLICATION_CBOR))
+				.andExpect(status().isOk())
+				.andExpect(content().contentType(MediaType.APPLICATION_CBOR))
+				.andReturn()
+				.getResponse()
+				.getContentAsByteArray();
+		
+		Recipe recipe = Jackson2ObjectMapperBuilder.cbor().build().readValue(cbor, Recipe.class);
+		
+		TestUtil.verifyResults(savedRecipe, recipe);
+	}
+	
 	@Test
 	void GivenValidJwtToken_WhenTriedForGettingNonExistingRecipes_ThenResponseIsNotFound() throws Exception {
 		String jwt = getJwtToken();
@@ -186,12 +262,263 @@ public class RecipeControllerTest {
 		createRecipe(jwt);
 		
 		mockMvc.perform(get("/api/recipes")
+				.header(AUTHORIZATION, BEARER + jwt)
+				.contentType(MediaType.APPLICATION_JSON))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.content", hasSize(1)))
+				.andExpect(jsonPath("$.next").doesNotExist());
+	}
+	
+	@Test
+	void GivenValidJwtToken_WhenTriedForGettingRecipeSummaries_ThenResponseHasSummariesOnly() throws Exception {
+		String jwt = getJwtToken();
+		createRecipe(jwt);
+		
+		mockMvc.perform(get("/api/recipes?view=summary")
+				.header(AUTHORIZATION, BEARER + jwt)
+				.contentType(MediaType.APPLICATION_JSON))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.content", hasSize(1)))
+				.andExpect(jsonPath("$.content[0].name").value(TestUtil.getRecipe().getName()))
+				.andExpect(jsonPath("$.content[0].ingredientCount").value(4))
+				.andExpect(jsonPath("$.content[0].ingredients").doesNotExist())
+				.andExpect(jsonPath("$.content[0].cookingInstructions").doesNotExist());
+	}
+	
+	@Test
+	void GivenValidJwtToken_WhenTriedForGettingChanges_ThenResponseHasRecipesAndNextToken() throws Exception {
+		String jwt = getJwtToken();
+		createRecipe(jwt);
+		
+		mockMvc.perform(get("/api/recipes/changes")
+				.header(AUTHORIZATION, BEARER + jwt)
+				.contentType(MediaType.APPLICATION_JSON))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.recipes", hasSize(1)))
+				.andExpect(jsonPath("$.deletedIds", hasSize(0)))
+				.andExpect(jsonPath("$.nextToken").isNotEmpty())
+				.andExpect(jsonPath("$.more").value(false));
+	}
+	
+	@Test
+	void GivenExpiredToken_WhenTriedForGettingChanges_ThenResponseIsGone() throws Exception {
+		String jwt = getJwtToken();
+		LocalDateTime longAgo = LocalDateTime.now().minusYears(1);
+		
+		mockMvc.perform(get("/api/recipes/changes")
+				.param("since", new ChangesToken(longAgo, 0, longAgo, 0).encode())
+				.header(AUTHORIZATION, BEARER + jwt)
+				.contentType(MediaType.APPLICATION_JSON))
+				.andExpect(status().isGone());
+	}
+	
+	@Test
+	void GivenValidJwtToken_WhenTriedForGettingAllRecipesUnpaged_ThenResponseIsOk() throws Exception {
+		String jwt = getJwtToken();
+		createRecipe(jwt);
+		
+		mockMvc.perform(get("/api/recipes")
+				.param("unpaged", "true")
 				.header(AUTHORIZATION, BEARER + jwt)
 				.contentType(MediaType.APPLICATION_JSON))
 				.andExpect(status().isOk())
 				.andExpect(jsonPath("$", hasSize(1)));
 	}
 	
+	@Test
+	void GivenValidJwtToken_WhenTriedForGettingRecipesPageByPage_ThenResponseHasNextLink() throws Exception {
+		String jwt = getJwtToken();
+		createRecipe(jwt);
+		createRecipe(jwt, "Second recipe");
+		
+		String json = mockMvc.perform(get("/api/recipes")
+				.param("size", "1")
+				.header(AUTHORIZATION, BEARER + jwt)
+				.contentType(MediaType.APPLICATION_JSON))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.content", hasSize(1)))
+				.andExpect(jsonPath("$.next").exists())
+				.andReturn()
+				.getResponse()
+				.getContentAsString();
+		
+		String cursor = objectMapper.readTree(json).get("nextCursor").asText();
+		
+		mockMvc.perform(get("/api/recipes")
+				.param("size", "1")
+				.param("cursor", cursor)
+				.header(AUTHORIZATION, BEARER + jwt)
+				.contentType(MediaType.APPLICATION_JSON))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.content", hasSize(1)))
+				.andExpect(jsonPath("$.content[0].name").value("Second recipe"))
+				.andExpect(jsonPath("$.next").doesNotExist());
+	}
+	
+	@Test
+	void GivenValidJwtToken_WhenTriedForGettingRecipesWithInvalidCursor_ThenResponseIsBadRequest() throws Exception {
+		String jwt = getJwtToken();
+		
+		final Exception exception = mockMvc.perform(get("/api/recipes")
+				.param("cursor", "not-a-cursor")
+				.header(AUTHORIZATION, BEARER + jwt)
+				.contentType(MediaType.APPLICATION_JSON))
+				.andExpect(status().isBadRequest())
+				.andReturn()
+				.getResolvedException();
+		
+		assertThat(exception).isExactlyInstanceOf(InvalidCursorException.class);
+	}
+	
+	@Test
+	void GivenValidJwtToken_WhenTriedForGettingRecipesSortedByCreationTime_ThenCreationTimeKeepsItsFormat() throws Exception {
+		String jwt = getJwtToken();
+		createRecipe(jwt);
+		createRecipe(jwt, "Second recipe");
+		
+		mockMvc.perform(get("/api/recipes")
+				.param("sort", "created")
+				.param("createdAfter", LocalDateTime.now().minusDays(1).toString())
+				.param("size", "1")
+				.header(AUTHORIZATION, BEARER + jwt)
+				.contentType(MediaType.APPLICATION_JSON))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.content", hasSize(1)))
+				.andExpect(jsonPath("$.content[0].name").value(TestUtil.getRecipe().getName()))
+				.andExpect(jsonPath("$.content[0].creationTime").value(matchesPattern("\\d{2}-\\d{2}-\\d{4} \\d{2}:\\d{2}")))
+				.andExpect(jsonPath("$.next").exists());
+	}
+	
+	@Test
+	void GivenValidJwtToken_WhenTriedForGettingRecipesWithInvalidSort_ThenResponseIsBadRequest() throws Exception {
+		String jwt = getJwtToken();
+		
+		final Exception exception = mockMvc.perform(get("/api/recipes")
+				.param("sort", "name")
+				.header(AUTHORIZATION, BEARER + jwt)
+				.contentType(MediaType.APPLICATION_JSON))
+				.andExpect(status().isBadRequest())
+				.andReturn()
+				.getResolvedException();
+		
+		assertThat(exception).isExactlyInstanceOf(InvalidSearchException.class);
+	}
+	
+	@Test
+	void GivenValidJwtToken_WhenTriedForSearchingRecipes_ThenResponseHasMatchingRecipes() throws Exception {
+		String jwt = getJwtToken();
+		createRecipe(jwt);
+		createRecipe(jwt, "Second recipe");
+		
+		mockMvc.perform(get("/api/recipes/search")
+				.param("q", "pesto")
+				.param("vegetarian", "true")
+				.param("size", "1")
+				.header(AUTHORIZATION, BEARER + jwt))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.content", hasSize(1)))
+				.andExpect(jsonPath("$.page").value(0))
+				.andExpect(jsonPath("$.last").value(false))
+				.andExpect(jsonPath("$.next").value("http://localhost/api/recipes/search?q=pesto&vegetarian=true&size=1&page=1"));
+		
+		mockMvc.perform(get("/api/recipes/search")
+				.param("q", "Second")
+				.header(AUTHORIZATION, BEARER + jwt))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.content", hasSize(1)))
+				.andExpect(jsonPath("$.content[0].name").value("Second recipe"))
+				.andExpect(jsonPath("$.next").doesNotExist());
+	}
+	
+	@Test
+	void GivenValidJwtToken_WhenTriedForSearchingRecipesWithInvalidPage_ThenResponseIsBadRequest() throws Exception {
+		String jwt = getJwtToken();
+		
+		final Exception exception = mockMvc.perform(get("/api/recipes/search")
+				.param("page", "-1")
+				.header(AUTHORIZATION, BEARER + jwt))
+				.andExpect(status().isBadRequest())
+				.andReturn()
+				.getResolvedException();
+		
+		assertThat(exception).isExactlyInstanceOf(InvalidSearchException.class);
+	}
+	
+	@Test
+	void GivenValidJwtToken_WhenTriedForFindingRecipesByIngredients_ThenResponseHasMatchingRecipes() throws Exception {
+		String jwt = getJwtToken();
+		createRecipe(jwt);
+		
+		mockMvc.perform(get("/api/recipes/by-ingredients")
+				.param("include", "Cherry Tomatoes")
+				.param("include", "Basil Pesto")
+				.param("maxMissing", "2")
+				.header(AUTHORIZATION, BEARER + jwt))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.content", hasSize(1)))
+				.andExpect(jsonPath("$.content[0].recipe.name").value(TestUtil.getRecipe().getName()))
+				.andExpect(jsonPath("$.content[0].missingIngredients", hasSize(2)));
+		
+		mockMvc.perform(get("/api/recipes/by-ingredients")
+				.param("include", "cherry tomato")
+				.param("exclude", "basil pesto")
+				.header(AUTHORIZATION, BEARER + jwt))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.content", hasSize(0)));
+	}
+	
+	@Test
+	void GivenSubscriber_WhenTriedForCreatingRecipe_ThenCreatedEventIsStreamed() throws Exception {
+		String jwt = getJwtToken();
+		
+		MvcResult mvcResult = mockMvc.perform(get("/api/recipes/stream")
+				.header(AUTHORIZATION, BEARER + jwt))
+				.andExpect(request().asyncStarted())
+				.andExpect(content().contentTypeCompatibleWith(MediaType.TEXT_EVENT_STREAM))
+				.andReturn();
+		createRecipe(jwt);
+		
+		String events = waitForEvent(mvcResult, "event:created");
+		assertThat(events).contains(TestUtil.getRecipe().getName());
+	}
+	
+	@Test
+	void GivenUnknownLastEventId_WhenTriedForStreaming_ThenResetEventIsStreamed() throws Exception {
+		String jwt = getJwtToken();
+		
+		MvcResult mvcResult = mockMvc.perform(get("/api/recipes/stream")
+				.header(AUTHORIZATION, BEARER + jwt)
+				.header("Last-Event-ID", "1-1"))
+				.andExpect(request().asyncStarted())
+				.andReturn();
+		
+		waitForEvent(mvcResult, "event:reset");
+	}
+	
+	@Test
+	void GivenValidJwtToken_WhenTriedForExportingRecipes_ThenResponseIsNdjson() throws Exception {
+		String jwt = getJwtToken();
+		createRecipe(jwt);
+		createRecipe(jwt, "Second recipe");
+		
+		MvcResult mvcResult = mockMvc.perform(get("/api/recipes/export")
+				.header(AUTHORIZATION, BEARER + jwt))
+				.andExpect(request().asyncStarted())
+				.andReturn();
+		
+		String ndjson = mockMvc.perform(asyncDispatch(mvcResult))
+				.andExpect(status().isOk())
+				.andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+				.andReturn()
+				.getResponse()
+				.getContentAsString();
+		
+		String[] lines = ndjson.split("\n");
+		assertEquals(2, lines.length);
+		TestUtil.verifyResults(objectMapper.readValue(lines[0], Recipe.class), TestUtil.getRecipe());
+		assertEquals("Second recipe", objectMapper.readValue(lines[1], Recipe.class).getName());
+	}
+	
 	@Test
 	void GivenValidJwtToken_WhenTriedForUpdatingNonExistingRecipe_ThenResponseIsNotFound() throws Exception {
 		String jwt = getJwtToken();
@@ -231,6 +558,214 @@ public class RecipeControllerTest {
 		
 	}
 	
+	@Test
+	void GivenValidJwtToken_WhenTriedForPatchingExistingRecipe_ThenResponseIsOk() throws Exception {
+		String jwt = getJwtToken();
+		Recipe savedRecipe = deserializeRecipe(createRecipe(jwt));
+		
+		mockMvc.perform(patch(String.format("/api/recipes/%d", savedRecipe.getId()))
+				.header(AUTHORIZATION, BEARER + jwt)
+				.content("{\"servingCapacity\":8}")
+				.contentType(RecipeController.MERGE_PATCH_JSON_VALUE))
+				.andExpect(status().isOk())
+				.andExpect(header().exists(HttpHeaders.ETAG))
+				.andExpect(jsonPath("$.servingCapacity").value(8))
+				.andExpect(jsonPath("$.name").value(savedRecipe.getName()))
+				.andExpect(jsonPath("$.ingredients", hasSize(savedRecipe.getIngredients().size())));
+		
+		final Exception exception = mockMvc.perform(patch(String.format("/api/recipes/%d", savedRecipe.getId()))
+				.header(AUTHORIZATION, BEARER + jwt)
+				.content("{\"servingCapacity\":0}")
+				.contentType(RecipeController.MERGE_PATCH_JSON_VALUE))
+				.andExpect(status().isBadRequest())
+				.andReturn()
+				.getResolvedException();
+		
+		assertThat(exception).isExactlyInstanceOf(InvalidPatchException.class);
+	}
+	
+	@Test
+	void GivenMatchingETag_WhenTriedForGettingRecipe_ThenResponseIsNotModified() throws Exception {
+		String jwt = getJwtToken();
+		Recipe savedRecipe = deserializeRecipe(createRecipe(jwt));
+		
+		String eTag = mockMvc.perform(get(String.format("/api/recipes/%d", savedRecipe.getId()))
+				.header(AUTHORIZATION, BEARER + jwt))
+				.andExpect(status().isOk())
+				.andExpect(header().exists(HttpHeaders.LAST_MODIFIED))
+				.andReturn()
+				.getResponse()
+				.getHeader(HttpHeaders.ETAG);
+		
+		mockMvc.perform(get(String.format("/api/recipes/%d", savedRecipe.getId()))
+				.header(AUTHORIZATION, BEARER + jwt)
+				.header(HttpHeaders.IF_NONE_MATCH, eTag))
+				.andExpect(status().isNotModified())
+				.andExpect(header().string(HttpHeaders.ETAG, eTag))
+				.andExpect(content().string(""));
+	}
+	
+	@Test
+	void GivenRecipeNotCached_WhenTriedForGettingRecipeWithETag_ThenOnlyItsVersionIsRead() throws Exception {
+		String jwt = getJwtToken();
+		Recipe savedRecipe = deserializeRecipe(createRecipe(jwt));
+		String eTag = mockMvc.perform(get(String.format("/api/recipes/%d", savedRecipe.getId()))
+				.header(AUTHORIZATION, BEARER + jwt))
+				.andExpect(status().isOk())
+				.andReturn()
+				.getResponse()
+				.getHeader(HttpHeaders.ETAG);
+		cacheManager.getCache(CacheConfig.RECIPES).clear();
+		Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		statistics.setStatisticsEnabled(true);
+		statistics.clear();
+		
+		mockMvc.perform(get(String.format("/api/recipes/%d", savedRecipe.getId()))
+				.header(AUTHORIZATION, BEARER + jwt)
+				.header(HttpHeaders.IF_NONE_MATCH, eTag))
+				.andExpect(status().isNotModified());
+		
+		assertEquals(1, statistics.getPrepareStatementCount());
+		assertEquals(0, statistics.getEntityLoadCount());
+		assertEquals(0, statistics.getCollectionFetchCount());
+	}
+	
+	@Test
+	void GivenPageNotCached_WhenTriedForGettingPageWithETag_ThenOnlyItsVersionsAreRead() throws Exception {
+		String jwt = getJwtToken();
+		createRecipe(jwt);
+		String eTag = mockMvc.perform(get("/api/recipes")
+				.header(AUTHORIZATION, BEARER + jwt))
+				.andExpect(status().isOk())
+				.andReturn()
+				.getResponse()
+				.getHeader(HttpHeaders.ETAG);
+		cacheManager.getCache(CacheConfig.RECIPE_PAGES).clear();
+		Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		statistics.setStatisticsEnabled(true);
+		statistics.clear();
+		
+		mockMvc.perform(get("/api/recipes")
+				.header(AUTHORIZATION, BEARER + jwt)
+				.header(HttpHeaders.IF_NONE_MATCH, eTag))
+				.andExpect(status().isNotModified());
+		
+		assertEquals(1, statistics.getPrepareStatementCount());
+		assertEquals(0, statistics.getEntityLoadCount());
+		assertEquals(0, statistics.getCollectionFetchCount());
+	}
+	
+	@Test
+	void GivenSummaryViewOrCborAccept_WhenTriedForGettingRecipes_ThenETagOfEachRepresentationDiffers() throws Exception {
+		String jwt = getJwtToken();
+		createRecipe(jwt);
+		
+		String eTag = mockMvc.perform(get("/api/recipes")
+				.header(AUTHORIZATION, BEARER + jwt))
+				.andExpect(status().isOk())
+				.andExpect(header().stringValues(HttpHeaders.VARY, hasItem(HttpHeaders.ACCEPT)))
+				.andReturn()
+				.getResponse()
+				.getHeader(HttpHeaders.ETAG);
+		String summaryETag = mockMvc.perform(get("/api/recipes")
+				.param("view", RecipeController.SUMMARY_VIEW)
+				.header(AUTHORIZATION, BEARER + jwt))
+				.andExpect(status().isOk())
+				.andReturn()
+				.getResponse()
+				.getHeader(HttpHeaders.ETAG);
+		String cborETag = mockMvc.perform(get("/api/recipes")
+				.header(AUTHORIZATION, BEARER + jwt)
+				.accept(MediaType.APPLICATION_CBOR))
+				.andExpect(status().isOk())
+				.andExpect(content().contentType(MediaType.APPLICATION_CBOR))
+				.andReturn()
+				.getResponse()
+				.getHeader(HttpHeaders.ETAG);
+		
+		mockMvc.perform(get("/api/recipes")
+				.header(AUTHORIZATION, BEARER + jwt)
+				.header(HttpHeaders.IF_NONE_MATCH, cborETag))
+				.andExpect(status().isOk())
+				.andExpect(content().contentType(MediaType.APPLICATION_JSON));
+		
+		mockMvc.perform(get("/api/recipes")
+				.header(AUTHORIZATION, BEARER + jwt)
+				.accept(MediaType.APPLICATION_CBOR)
+				.header(HttpHeaders.IF_NONE_MATCH, cborETag))
+				.andExpect(status().isNotModified())
+				.andExpect(header().stringValues(HttpHeaders.VARY, hasItem(HttpHeaders.ACCEPT)));
+		
+		assertThat(summaryETag).isNotEqualTo(eTag);
+		assertThat(cborETag).isNotEqualTo(eTag).isNotEqualTo(summaryETag);
+	}
+	
+	@Test
+	void GivenModifiedRecipe_WhenTriedForGettingRecipesWithOldETag_ThenResponseIsOk() throws Exception {
+		String jwt = getJwtToken();
+		Recipe savedRecipe = deserializeRecipe(createRecipe(jwt));
+		
+		String eTag = mockMvc.perform(get("/api/recipes")
+				.header(AUTHORIZATION, BEARER + jwt))
+				.andExpect(status().isOk())
+				.andReturn()
+				.getResponse()
+				.getHeader(HttpHeaders.ETAG);
+		
+		mockMvc.perform(get("/api/recipes")
+				.header(AUTHORIZATION, BEARER + jwt)
+				.header(HttpHeaders.IF_NONE_MATCH, eTag))
+				.andExpect(status().isNotModified());
+		
+		savedRecipe.setServingCapacity(8);
+		mockMvc.perform(put(String.format("/api/recipes/%d", savedRecipe.getId()))
+				.header(AUTHORIZATION, BEARER + jwt)
+				.content(objectMapper.writeValueAsString(savedRecipe))
+				.contentType(MediaType.APPLICATION_JSON))
+				.andExpect(status().isOk());
+		
+		mockMvc.perform(get("/api/recipes")
+				.header(AUTHORIZATION, BEARER + jwt)
+				.header(HttpHeaders.IF_NONE_MATCH, eTag))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.content[0].servingCapacity").value(8));
+	}
+	
+	@Test
+	void GivenStaleETag_WhenTriedForUpdatingRecipeWithIfMatch_ThenResponseIsPreconditionFailed() throws Exception {
+		String jwt = getJwtToken();
+		Recipe savedRecipe = deserializeRecipe(createRecipe(jwt));
+		String eTag = mockMvc.perform(get(String.format("/api/recipes/%d", savedRecipe.getId()))
+				.header(AUTHORIZATION, BEARER + jwt))
+				.andReturn()
+				.getResponse()
+				.getHeader(HttpHeaders.ETAG);
+		
+		savedRecipe.setServingCapacity(8);
+		String newETag = mockMvc.perform(put(String.format("/api/recipes/%d", savedRecipe.getId()))
+				.header(AUTHORIZATION, BEARER + jwt)
+				.header(HttpHeaders.IF_MATCH, eTag)
+				.content(objectMapper.writeValueAsString(savedRecipe))
+				.contentType(MediaType.APPLICATION_JSON))
+				.andExpect(status().isOk())
+				.andReturn()
+				.getResponse()
+				.getHeader(HttpHeaders.ETAG);
+		
+		savedRecipe.setServingCapacity(6);
+		final Exception exception = mockMvc.perform(put(String.format("/api/recipes/%d", savedRecipe.getId()))
+				.header(AUTHORIZATION, BEARER + jwt)
+				.header(HttpHeaders.IF_MATCH, eTag)
+				.content(objectMapper.writeValueAsString(savedRecipe))
+				.contentType(MediaType.APPLICATION_JSON))
+				.andExpect(status().isPreconditionFailed())
+				.andReturn()
+				.getResolvedException();
+		
+		assertThat(exception).isExactlyInstanceOf(RecipeModifiedException.class);
+		assertThat(newETag).isNotEqualTo(eTag);
+	}
+	
 	@Test
 	void GivenValidJwtToken_WhenTriedForDeletingNonExistingRecipe_ThenResponseIsNotFound() throws Exception {
 		String jwt = getJwtToken();
@@ -257,6 +792,85 @@ public class RecipeControllerTest {
 				.andExpect(status().isNoContent());
 	}
 	
+	@Test
+	void GivenValidJwtToken_WhenTriedForCreatingRecipesInBulk_ThenResponseHasStatusForEachRecipe() throws Exception {
+		String jwt = getJwtToken();
+		createRecipe(jwt);
+		Recipe newRecipe = TestUtil.getRecipe();
+		newRecipe.setName("Second recipe");
+		String content = objectMapper.writeValueAsString(Arrays.asList(TestUtil.getRecipe(), newRecipe));
+		
+		mockMvc.perform(post("/api/recipes/bulk")
+				.content(content)
+				.header(AUTHORIZATION, BEARER + jwt)
+				.contentType(MediaType.APPLICATION_JSON))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$", hasSize(2)))
+				.andExpect(jsonPath("$[0].index").value(0))
+				.andExpect(jsonPath("$[0].status").value(409))
+				.andExpect(jsonPath("$[1].index").value(1))
+				.andExpect(jsonPath("$[1].status").value(201))
+				.andExpect(jsonPath("$[1].id").isNumber());
+	}
+	
+	@Test
+	void GivenValidJwtToken_WhenTriedForCreatingTooManyRecipesInBulk_ThenResponseIsBadRequest() throws Exception {
+		String jwt = getJwtToken();
+		String content = objectMapper.writeValueAsString(Collections.nCopies(1001, TestUtil.getRecipe()));
+		
+		final Exception exception = mockMvc.perform(post("/api/recipes/bulk")
+				.content(content)
+				.header(AUTHORIZATION, BEARER + jwt)
+				.contentType(MediaType.APPLICATION_JSON))
+				.andExpect(status().isBadRequest())
+				.andReturn()
+				.getResolvedException();
+		
+		assertThat(exception).isExactlyInstanceOf(BulkLimitExceededException.class);
+	}
+	
+	@Test
+	void GivenValidJwtToken_WhenTriedForUpdatingRecipesInBulk_ThenResponseHasStatusForEachRecipe() throws Exception {
+		String jwt = getJwtToken();
+		Recipe savedRecipe = deserializeRecipe(createRecipe(jwt));
+		savedRecipe.setServingCapacity(8);
+		Recipe missingRecipe = TestUtil.getRecipe();
+		missingRecipe.setId(savedRecipe.getId() + 1);
+		String content = objectMapper.writeValueAsString(Arrays.asList(savedRecipe, missingRecipe));
+		
+		mockMvc.perform(put("/api/recipes/bulk")
+				.content(content)
+				.header(AUTHORIZATION, BEARER + jwt)
+				.contentType(MediaType.APPLICATION_JSON))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$[0].status").value(200))
+				.andExpect(jsonPath("$[1].status").value(404));
+		
+		mockMvc.perform(get(String.format("/api/recipes/%d", savedRecipe.getId()))
+				.header(AUTHORIZATION, BEARER + jwt))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$.servingCapacity").value(8));
+	}
+	
+	@Test
+	void GivenValidJwtToken_WhenTriedForDeletingRecipesInBulk_ThenResponseHasStatusForEachRecipe() throws Exception {
+		String jwt = getJwtToken();
+		Recipe savedRecipe = deserializeRecipe(createRecipe(jwt));
+		String content = objectMapper.writeValueAsString(Arrays.asList(savedRecipe.getId(), savedRecipe.getId() + 1));
+		
+		mockMvc.perform(delete("/api/recipes/bulk")
+				.content(content)
+				.header(AUTHORIZATION, BEARER + jwt)
+				.contentType(MediaType.APPLICATION_JSON))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$[0].status").value(204))
+				.andExpect(jsonPath("$[1].status").value(404));
+		
+		mockMvc.perform(get(String.format("/api/recipes/%d", savedRecipe.getId()))
+				.header(AUTHORIZATION, BEARER + jwt))
+				.andExpect(status().isNotFound());
+	}
+	
 	private String getJwtToken() throws Exception {
 		SignUpRequest signUpRequest = SignUpRequest.builder()
 				.username("username")
@@ -290,7 +904,12 @@ public class RecipeControllerTest {
 	}
 	
 	private ResultActions createRecipe(String jwt) throws Exception {
+		return createRecipe(jwt, TestUtil.getRecipe().getName());
+	}
+	
+	private ResultActions createRecipe(String jwt, String name) throws Exception {
 		Recipe recipe = TestUtil.getRecipe();
+		recipe.setName(name);
 		String content = objectMapper.writeValueAsString(recipe);
 		
 		return mockMvc.perform(post("/api/recipes")
@@ -299,6 +918,17 @@ public class RecipeControllerTest {
 				.contentType(MediaType.APPLICATION_JSON));
 	}
 	
+	private String waitForEvent(MvcResult mvcResult, String event) throws Exception {
+		long deadline = System.currentTimeMillis() + 5000;
+		String events = mvcResult.getResponse().getContentAsString();
+		while (!events.contains(event) && System.currentTimeMillis() < deadline) {
+			Thread.sleep(10);
+			events = mvcResult.getResponse().getContentAsString();
+		}
+		assertThat(events).contains(event);
+		return events;
+	}
+	
 	private Recipe deserializeRecipe(ResultActions resultActions) throws Exception {
 		String json = resultActions
 				.andExpect(status().is2xxSuccessful())
@@ -2,6 +2,7 @@ package com.gorkem.recipe.controller;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -9,9 +10,11 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.authentication.InternalAuthenticationServiceException;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.test.annotation.DirtiesContext;
 import org.springframework.test.annotation.DirtiesContext.ClassMode;
 import org.springframework.test.web.servlet.MockMvc;
@@ -20,9 +23,12 @@ import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.context.WebApplicationContext;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.gorkem.recipe.exception.TooManyAttemptsException;
 import com.gorkem.recipe.exception.UserAlreadyExistsException;
+import com.gorkem.recipe.model.User;
 import com.gorkem.recipe.payload.request.SignInRequest;
 import com.gorkem.recipe.payload.request.SignUpRequest;
+import com.gorkem.recipe.repository.UserRepository;
 import com.gorkem.recipe.security.JwtAuthorizationFilter;
 
 /**
@@ -42,6 +48,9 @@ public class UserControllerTest {
 
 	@Autowired
 	private ObjectMapper objectMapper;
+	
+	@Autowired
+	private UserRepository userRepository;
 
 	private MockMvc mockMvc;
 
@@ -168,4 +177,57 @@ public class UserControllerTest {
 				.andExpect(status().isOk())
 				.andExpect(jsonPath("$.message").isNotEmpty());
 	}
+	
+	@Test
+	void GivenTooManyWrongCredentials_WhenTriedForLogin_ThenResponseIsTooManyRequests() throws Exception {
+		GivenValidCredentials_WhenTriedForRegistration_ThenResponseIsCreated();
+		
+		SignInRequest signInRequest = SignInRequest.builder()
+				.username("username")
+				.password("password1234")
+				.build();
+
+		String content = objectMapper.writeValueAsString(signInRequest);
+
+		for (int i = 0; i < 5; i++)
+			mockMvc.perform(post("/api/auth/signin")
+					.content(content)
+					.contentType(MediaType.APPLICATION_JSON))
+					.andExpect(status().isUnauthorized());
+		
+		final Exception exception = mockMvc.perform(post("/api/auth/signin")
+				.content(content)
+				.contentType(MediaType.APPLICATION_JSON))
+				.andExpect(status().isTooManyRequests())
+				.andExpect(header().exists(HttpHeaders.RETRY_AFTER))
+				.andReturn()
+				.getResolvedException();
+		
+		assertThat(exception).isExactlyInstanceOf(TooManyAttemptsException.class);
+	}
+	
+	@Test
+	void GivenPasswordHashedWithLowerCost_WhenTriedForLogin_ThenPasswordIsHashedAgain() throws Exception {
+		userRepository.save(User.builder()
+				.username("username")
+				.email("user@user.com")
+				.password(new BCryptPasswordEncoder(4).encode("password"))
+				.build());
+
+		SignInRequest signInRequest = SignInRequest.builder()
+				.username("username")
+				.password("password")
+				.build();
+
+		String content = objectMapper.writeValueAsString(signInRequest);
+
+		mockMvc.perform(post("/api/auth/signin")
+				.content(content)
+				.contentType(MediaType.APPLICATION_JSON))
+				.andExpect(status().isOk());
+		
+		final String password = userRepository.findByUsername("username").get().getPassword();
+		assertThat(password).startsWith("$2a$05$");
+		assertThat(new BCryptPasswordEncoder().matches("password", password)).isTrue();
+	}
 }
@@ -0,0 +1,56 @@
+package com.gorkem.recipe.metrics;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+
+import com.gorkem.recipe.model.Recipe;
+import com.gorkem.recipe.repository.RecipeRepository;
+import com.gorkem.recipe.service.RecipeService;
+import com.gorkem.recipe.util.TestUtil;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Repository metrics integration test class.
+ *
+ * @author gorkemdemiray
+ */
+@SpringBootTest
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+public class RepositoryMetricsTest {
+
+	@Autowired
+	private RecipeService recipeService;
+
+	@Autowired
+	private RecipeRepository recipeRepository;
+
+	@Autowired
+	private MeterRegistry meterRegistry;
+
+	@Test
+	void GivenRepositoryMethodCall_WhenTriedForRecordingMetrics_ThenQueriesAndConnectionAreTaggedWithMethod() throws Exception {
+		Recipe recipe = recipeService.createRecipe(TestUtil.getRecipe());
+
+		// the service reads in a read only transaction, whose connection is acquired before the repository method
+		recipeRepository.findWithIngredientsById(recipe.getId());
+
+		assertEquals(1, meterRegistry.get(RepositoryMetrics.QUERIES).tag("repository", "RecipeRepository")
+				.tag("method", "findWithIngredientsById").counter().count());
+		Timer queryTime = meterRegistry.get(RepositoryMetrics.QUERY_TIME).tag("repository", "RecipeRepository")
+				.tag("method", "findWithIngredientsById").timer();
+		assertEquals(1, queryTime.count());
+		assertTrue(queryTime.totalTime(TimeUnit.NANOSECONDS) > 0);
+		assertEquals(1, meterRegistry.get(RepositoryMetrics.CONNECTION_ACQUIRE_TIME).tag("repository", "RecipeRepository")
+				.tag("method", "findWithIngredientsById").timer().count());
+	}
+
+}
@@ -0,0 +1,69 @@
+package com.gorkem.recipe.metrics;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.metrics.AutoConfigureMetrics;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import com.gorkem.recipe.exception.NoRecipesFoundException;
+import com.gorkem.recipe.service.RecipeService;
+import com.gorkem.recipe.util.TestUtil;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Service metrics integration test class.
+ *
+ * @author gorkemdemiray
+ */
+@SpringBootTest
+@AutoConfigureMetrics
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+public class ServiceMetricsTest {
+
+	@Autowired
+	private RecipeService recipeService;
+
+	@Autowired
+	private MeterRegistry meterRegistry;
+
+	@Autowired
+	private WebApplicationContext webApplicationContext;
+
+	@Test
+	void GivenServiceMethodCalls_WhenTriedForRecordingMetrics_ThenCallsAreTimedWithTheirException() throws Exception {
+		assertThrows(NoRecipesFoundException.class, () -> {
+			recipeService.getAllRecipes();
+		});
+		recipeService.createRecipe(TestUtil.getRecipe());
+
+		assertEquals(1, meterRegistry.get(ServiceMetrics.SERVICE_METHOD_TIME).tag("service", "RecipeService")
+				.tag("method", "getAllRecipes").tag("exception", NoRecipesFoundException.class.getSimpleName()).timer()
+				.count());
+		assertEquals(1, meterRegistry.get(ServiceMetrics.SERVICE_METHOD_TIME).tag("service", "RecipeService")
+				.tag("method", "createRecipe").tag("exception", "none").timer().count());
+	}
+
+	@Test
+	void GivenRecordedMetrics_WhenTriedForScraping_ThenResponseHasPrometheusHistograms() throws Exception {
+		recipeService.createRecipe(TestUtil.getRecipe());
+
+		MockMvcBuilders.webAppContextSetup(webApplicationContext).build()
+				.perform(get("/actuator/prometheus"))
+				.andExpect(status().isOk())
+				.andExpect(content().string(containsString("recipe_service_method_seconds_bucket{")))
+				.andExpect(content().string(containsString("recipe_jwt_verification_seconds_bucket{")))
+				.andExpect(content().string(containsString("recipe_repository_queries_total{")));
+	}
+
+}
@@ -0,0 +1,92 @@
+package com.gorkem.recipe.search;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.gorkem.recipe.model.Ingredient;
+import com.gorkem.recipe.model.Recipe;
+
+/**
+ * Ingredient index test class.
+ *
+ * @author gorkemdemiray
+ */
+public class IngredientIndexTest {
+
+	private IngredientIndex ingredientIndex;
+
+	@BeforeEach
+	public void setUp() {
+		ingredientIndex = new IngredientIndex();
+		ingredientIndex.rebuild(Stream.of(getRecipe(1L, "Tomato", "Basil", "Pasta"),
+				getRecipe(2L, "tomatoes", "garlic"),
+				getRecipe(3L, "Chicken", "Garlic", "Rice", "Chili"),
+				getRecipe(4L, "Rice")));
+	}
+
+	@Test
+	void GivenSpellingsOfSameIngredient_WhenTriedForIndexing_ThenIngredientIsAddedOnce() throws Exception {
+		assertEquals(7, ingredientIndex.ingredientCount());
+	}
+
+	@Test
+	void GivenIncludedIngredients_WhenTriedForQuerying_ThenResponseHasRecipesUsingAllOfThem() throws Exception {
+		assertEquals(Arrays.asList(2L), getRecipeIds(query(Arrays.asList("Tomato", "GARLIC"), null, null)));
+		assertEquals(Arrays.asList(2L, 1L), getRecipeIds(query(Arrays.asList("tomatoes"), null, null)));
+		assertTrue(query(Arrays.asList("tomato", "salmon"), null, null).isEmpty());
+	}
+
+	@Test
+	void GivenExcludedIngredients_WhenTriedForQuerying_ThenResponseHasNoRecipesUsingThem() throws Exception {
+		assertEquals(Arrays.asList(4L, 1L), getRecipeIds(query(null, Arrays.asList("garlic"), null)));
+		assertEquals(Arrays.asList(4L), getRecipeIds(query(Arrays.asList("rice"), Arrays.asList("chili"), null)));
+	}
+
+	@Test
+	void GivenMaxMissing_WhenTriedForQuerying_ThenResponseHasRecipesMissingAtMostThatMany() throws Exception {
+		List<IngredientMatch> matches = query(Arrays.asList("garlic", "rice"), null, 2);
+
+		assertEquals(Arrays.asList(4L, 2L, 3L), getRecipeIds(matches));
+		assertTrue(matches.get(0).getMissingIngredients().isEmpty());
+		assertEquals(Arrays.asList("tomato"), matches.get(1).getMissingIngredients());
+		assertEquals(Arrays.asList("chicken", "chili"), matches.get(2).getMissingIngredients());
+
+		assertEquals(Arrays.asList(2L, 4L), getRecipeIds(query(Arrays.asList("tomato", "garlic", "rice"), null, 1)));
+		// recipe 4 shares no ingredient with an empty pantry but misses only one
+		assertEquals(Arrays.asList(4L), getRecipeIds(query(null, null, 1)));
+	}
+
+	@Test
+	void GivenUpdatedAndDeletedRecipes_WhenTriedForQuerying_ThenPostingListsAreUpToDate() throws Exception {
+		ingredientIndex.update(Collections.singletonList(getRecipe(1L, "Lentil", "Rice")), Arrays.asList(4L));
+
+		assertEquals(Arrays.asList(1L, 3L), getRecipeIds(query(Arrays.asList("rice"), null, null)));
+		assertTrue(query(Arrays.asList("basil"), null, null).isEmpty());
+	}
+
+	private List<IngredientMatch> query(List<String> include, List<String> exclude, Integer maxMissing) {
+		return ingredientIndex.query(include, exclude, maxMissing, 0, 100);
+	}
+
+	private List<Long> getRecipeIds(List<IngredientMatch> matches) {
+		return matches.stream().map(IngredientMatch::getRecipeId).collect(Collectors.toList());
+	}
+
+	private Recipe getRecipe(Long id, String... ingredientNames) {
+		return Recipe.builder()
+				.id(id)
+				.ingredients(Arrays.stream(ingredientNames).map(name -> Ingredient.builder().name(name).build())
+						.collect(Collectors.toList()))
+				.build();
+	}
+
+}
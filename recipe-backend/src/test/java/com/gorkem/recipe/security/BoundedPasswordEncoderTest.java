@@ -0,0 +1,75 @@
+package com.gorkem.recipe.security;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import com.gorkem.recipe.exception.AuthenticationBusyException;
+
+/**
+ * Bounded password encoder test class.
+ * 
+ * @author gorkemdemiray
+ */
+public class BoundedPasswordEncoderTest {
+
+	private ThreadPoolExecutor executor;
+	private BoundedPasswordEncoder passwordEncoder;
+
+	@BeforeEach
+	public void setUp() {
+		executor = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(1));
+		passwordEncoder = new BoundedPasswordEncoder(new BCryptPasswordEncoder(4), executor);
+	}
+	
+	@AfterEach
+	public void tearDown() {
+		passwordEncoder.destroy();
+	}
+
+	@Test
+	void GivenIdlePool_WhenTriedForHashing_ThenPasswordIsHashedAndVerified() {
+		final String password = passwordEncoder.encode("password");
+		
+		assertTrue(passwordEncoder.matches("password", password));
+		assertFalse(passwordEncoder.matches("password1234", password));
+	}
+	
+	@Test
+	void GivenFullPool_WhenTriedForHashing_ThenAttemptIsRejected() throws Exception {
+		final CountDownLatch running = new CountDownLatch(1);
+		final CountDownLatch release = new CountDownLatch(1);
+		executor.execute(() -> {
+			running.countDown();
+			try {
+				release.await();
+			} catch (InterruptedException ex) {
+				Thread.currentThread().interrupt();
+			}
+		});
+		running.await();
+		executor.execute(() -> {});
+		
+		assertThrows(AuthenticationBusyException.class, () -> passwordEncoder.encode("password"));
+		
+		release.countDown();
+	}
+	
+	@Test
+	void GivenHashWithLowerCost_WhenTriedForUpgrade_ThenUpgradeIsNeeded() {
+		final String password = new BCryptPasswordEncoder(4).encode("password");
+		
+		assertFalse(passwordEncoder.upgradeEncoding(password));
+		assertTrue(new BoundedPasswordEncoder(new BCryptPasswordEncoder(5), executor).upgradeEncoding(password));
+	}
+}
@@ -0,0 +1,93 @@
+package com.gorkem.recipe.security;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.annotation.DirtiesContext.ClassMode;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.gorkem.recipe.payload.request.SignInRequest;
+import com.gorkem.recipe.payload.request.SignUpRequest;
+import com.gorkem.recipe.payload.response.JwtResponse;
+import com.gorkem.recipe.repository.UserRepository;
+
+/**
+ * Jwt authorization filter integration test class for building the principal from the token claims.
+ * 
+ * @author gorkemdemiray
+ */
+@SpringBootTest(properties = "recipe.app.principalMode = CLAIMS")
+@DirtiesContext(classMode = ClassMode.AFTER_EACH_TEST_METHOD)
+public class JwtAuthorizationFilterTest {
+
+	private static final String BEARER = "Bearer ";
+	private static final String AUTHORIZATION = "Authorization";
+
+	@Autowired
+	private WebApplicationContext webApplicationContext;
+
+	@Autowired
+	private JwtAuthorizationFilter jwtAuthorizationFilter;
+
+	@Autowired
+	private ObjectMapper objectMapper;
+	
+	@Autowired
+	private UserRepository userRepository;
+
+	private MockMvc mockMvc;
+
+	@BeforeEach
+	public void setUp() throws Exception {
+		mockMvc = MockMvcBuilders.webAppContextSetup(webApplicationContext)
+				.addFilters(jwtAuthorizationFilter)
+				.build();
+	}
+
+	@Test
+	void GivenValidJwtTokenOfRemovedUser_WhenTriedForAPICall_ThenPrincipalIsBuiltFromClaims() throws Exception {
+		String jwt = getJwtToken();
+		userRepository.deleteAll();
+
+		mockMvc.perform(get("/api/recipes")
+				.header(AUTHORIZATION, BEARER + jwt)
+				.contentType(MediaType.APPLICATION_JSON))
+				.andExpect(status().isNotFound());
+	}
+
+	private String getJwtToken() throws Exception {
+		SignUpRequest signUpRequest = SignUpRequest.builder()
+				.username("username")
+				.email("user@user.com")
+				.password("password")
+				.build();
+
+		mockMvc.perform(post("/api/auth/signup")
+				.content(objectMapper.writeValueAsString(signUpRequest))
+				.contentType(MediaType.APPLICATION_JSON));
+
+		SignInRequest signInRequest = SignInRequest.builder()
+				.username("username")
+				.password("password")
+				.build();
+
+		String json = mockMvc.perform(post("/api/auth/signin")
+				.content(objectMapper.writeValueAsString(signInRequest))
+				.contentType(MediaType.APPLICATION_JSON))
+				.andReturn()
+				.getResponse()
+				.getContentAsString();
+
+		return objectMapper.readValue(json, JwtResponse.class).getJwt();
+	}
+}
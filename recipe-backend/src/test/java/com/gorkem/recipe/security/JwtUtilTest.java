@@ -0,0 +1,100 @@
+package com.gorkem.recipe.security;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Date;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+
+import com.gorkem.recipe.service.UserDetailsImpl;
+
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.SignatureException;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Jwt util integration test class.
+ * 
+ * @author gorkemdemiray
+ */
+@SpringBootTest
+public class JwtUtilTest {
+
+	@Autowired
+	private JwtUtil jwtUtil;
+
+	@Autowired
+	private MeterRegistry meterRegistry;
+
+	@Test
+	void GivenValidJwtToken_WhenTriedForVerifying_ThenClaimsAreReturned() throws Exception {
+		String jwt = generateJwtToken("username");
+
+		VerifiedToken verifiedToken = jwtUtil.verifyJwtToken(jwt);
+
+		assertEquals("username", verifiedToken.getUsername());
+		assertEquals("user@user.com", verifiedToken.getEmail());
+		assertFalse(verifiedToken.isExpired());
+	}
+
+	@Test
+	void GivenVerifiedJwtToken_WhenTriedForVerifyingAgain_ThenTokenIsNotParsedAgain() throws Exception {
+		String jwt = generateJwtToken("username");
+
+		VerifiedToken verifiedToken = jwtUtil.verifyJwtToken(jwt);
+
+		assertSame(verifiedToken, jwtUtil.verifyJwtToken(jwt));
+	}
+
+	@Test
+	void GivenVerifiedJwtToken_WhenTriedForVerifyingAgain_ThenLatencyIsRecordedAsCached() throws Exception {
+		String jwt = generateJwtToken("username");
+		long parsed = getVerificationCount("parsed");
+		long cached = getVerificationCount("cached");
+
+		jwtUtil.verifyJwtToken(jwt);
+		jwtUtil.verifyJwtToken(jwt);
+
+		assertEquals(parsed + 1, getVerificationCount("parsed"));
+		assertEquals(cached + 1, getVerificationCount("cached"));
+	}
+
+	@Test
+	void GivenJwtTokenSignedWithAnotherKey_WhenTriedForVerifying_ThenResponseIsException() throws Exception {
+		String jwt = Jwts.builder()
+				.setSubject("username")
+				.setExpiration(new Date(System.currentTimeMillis() + 60000))
+				.signWith(SignatureAlgorithm.HS512, "anotherSecretKey")
+				.compact();
+
+		assertThrows(SignatureException.class, () -> {
+			jwtUtil.verifyJwtToken(jwt);
+		});
+	}
+
+	@Test
+	void GivenVerifiedJwtToken_WhenTriedForValidatingWithAnotherUser_ThenResponseIsFalse() throws Exception {
+		VerifiedToken verifiedToken = jwtUtil.verifyJwtToken(generateJwtToken("username"));
+
+		assertTrue(jwtUtil.validateJwtToken(verifiedToken, UserDetailsImpl.build("username", "user@user.com")));
+		assertFalse(jwtUtil.validateJwtToken(verifiedToken, UserDetailsImpl.build("another", "another@user.com")));
+	}
+
+	private long getVerificationCount(String result) {
+		return meterRegistry.get("recipe.jwt.verification").tag("result", result).timer().count();
+	}
+
+	private String generateJwtToken(String username) {
+		UserDetailsImpl userDetails = UserDetailsImpl.build(username, "user@user.com");
+		return jwtUtil.generateJwtToken(
+				new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities()));
+	}
+}
@@ -0,0 +1,126 @@
+package com.gorkem.recipe.security;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+import java.util.Collections;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Rate limit filter test class.
+ * 
+ * @author gorkemdemiray
+ */
+public class RateLimitFilterTest {
+
+	private MeterRegistry meterRegistry;
+	private RateLimitFilter rateLimitFilter;
+
+	@BeforeEach
+	public void setUp() {
+		meterRegistry = new SimpleMeterRegistry();
+		rateLimitFilter = new RateLimitFilter(100, 100000, 600000, meterRegistry);
+	}
+	
+	@AfterEach
+	public void tearDown() {
+		SecurityContextHolder.clearContext();
+	}
+
+	@Test
+	void GivenUserOverLimit_WhenTriedForExport_ThenResponseIsTooManyRequests() throws Exception {
+		SecurityContextHolder.getContext().setAuthentication(
+				new UsernamePasswordAuthenticationToken("username", null, Collections.emptyList()));
+		
+		assertEquals(HttpStatus.OK.value(), perform("GET", "/api/recipes/export").getStatus());
+		
+		final MockHttpServletResponse response = perform("GET", "/api/recipes/export");
+		assertEquals(HttpStatus.TOO_MANY_REQUESTS.value(), response.getStatus());
+		assertNotNull(response.getHeader(HttpHeaders.RETRY_AFTER));
+		assertEquals(1, meterRegistry.counter(RateLimitFilter.RATE_LIMITED, "endpoint", "EXPORT", "limit", "user")
+				.count());
+		
+		SecurityContextHolder.getContext().setAuthentication(
+				new UsernamePasswordAuthenticationToken("otherUsername", null, Collections.emptyList()));
+		
+		assertEquals(HttpStatus.OK.value(), perform("GET", "/api/recipes/export").getStatus());
+	}
+	
+	@Test
+	void GivenUserOverLimitForExport_WhenTriedForReads_ThenCheaperRequestsAreAdmitted() throws Exception {
+		for (int i = 0; i < 90; i++)
+			assertEquals(HttpStatus.OK.value(), perform("GET", "/api/recipes/" + i).getStatus());
+		
+		final MockHttpServletRequest unpagedRequest = new MockHttpServletRequest("GET", "/api/recipes");
+		unpagedRequest.setParameter("unpaged", "true");
+		
+		assertEquals(HttpStatus.TOO_MANY_REQUESTS.value(), perform(unpagedRequest).getStatus());
+		assertEquals(HttpStatus.OK.value(), perform("GET", "/api/recipes").getStatus());
+		assertEquals(HttpStatus.TOO_MANY_REQUESTS.value(), perform("GET", "/api/recipes/1").getStatus());
+	}
+	
+	@Test
+	void GivenEndpointClassOverLimit_WhenTriedForBulk_ThenResponseIsTooManyRequests() throws Exception {
+		rateLimitFilter = new RateLimitFilter(100000, 50, 600000, meterRegistry);
+		
+		assertEquals(HttpStatus.OK.value(), perform("POST", "/api/recipes/bulk").getStatus());
+		assertEquals(HttpStatus.TOO_MANY_REQUESTS.value(), perform("DELETE", "/api/recipes/bulk").getStatus());
+		assertEquals(HttpStatus.OK.value(), perform("POST", "/api/recipes").getStatus());
+		assertEquals(1, meterRegistry.counter(RateLimitFilter.RATE_LIMITED, "endpoint", "BULK", "limit", "endpoint")
+				.count());
+	}
+	
+	@Test
+	void GivenEndpointClassOverLimit_WhenTriedForBulk_ThenUserTokensAreGivenBack() throws Exception {
+		rateLimitFilter = new RateLimitFilter(100, 50, 600000, meterRegistry);
+		
+		assertEquals(HttpStatus.OK.value(), perform("POST", "/api/recipes/bulk").getStatus());
+		for (int i = 0; i < 5; i++)
+			assertEquals(HttpStatus.TOO_MANY_REQUESTS.value(), perform("DELETE", "/api/recipes/bulk").getStatus());
+		for (int i = 0; i < 50; i++)
+			assertEquals(HttpStatus.OK.value(), perform("GET", "/api/recipes/" + i).getStatus());
+		assertEquals(HttpStatus.TOO_MANY_REQUESTS.value(), perform("GET", "/api/recipes/1").getStatus());
+		assertEquals(1, meterRegistry.counter(RateLimitFilter.RATE_LIMITED, "endpoint", "READ", "limit", "user")
+				.count());
+	}
+	
+	@Test
+	void GivenEndpointClassCapacity_WhenTriedForBurstFromOneThread_ThenWholeCapacityIsAdmitted() throws Exception {
+		rateLimitFilter = new RateLimitFilter(100000, 100, 600000, meterRegistry);
+		
+		for (int i = 0; i < 100; i++)
+			assertEquals(HttpStatus.OK.value(), perform("GET", "/api/recipes/" + i).getStatus());
+		assertEquals(HttpStatus.TOO_MANY_REQUESTS.value(), perform("GET", "/api/recipes/1").getStatus());
+		assertEquals(1, meterRegistry.counter(RateLimitFilter.RATE_LIMITED, "endpoint", "READ", "limit", "endpoint")
+				.count());
+	}
+	
+	@Test
+	void GivenOtherEndpoint_WhenTriedOverLimit_ThenRequestIsNotLimited() throws Exception {
+		for (int i = 0; i < 200; i++)
+			assertEquals(HttpStatus.OK.value(), perform("POST", "/api/auth/signin").getStatus());
+	}
+	
+	private MockHttpServletResponse perform(final String method, final String uri) throws Exception {
+		return perform(new MockHttpServletRequest(method, uri));
+	}
+	
+	private MockHttpServletResponse perform(final MockHttpServletRequest request) throws Exception {
+		final MockHttpServletResponse response = new MockHttpServletResponse();
+		rateLimitFilter.doFilter(request, response, new MockFilterChain());
+		return response;
+	}
+}
@@ -0,0 +1,123 @@
+package com.gorkem.recipe.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+
+import com.gorkem.recipe.exception.InvalidSearchException;
+import com.gorkem.recipe.model.Ingredient;
+import com.gorkem.recipe.model.Recipe;
+import com.gorkem.recipe.payload.response.SearchPage;
+import com.gorkem.recipe.util.TestUtil;
+
+/**
+ * Recipe search service integration test class.
+ *
+ * @author gorkemdemiray
+ */
+@SpringBootTest
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+public class RecipeSearchServiceTest {
+
+	@Autowired
+	private RecipeSearchService recipeSearchService;
+
+	@Autowired
+	private RecipeService recipeService;
+
+	@Test
+	void GivenCreatedRecipe_WhenTriedForSearchingByNameIngredientOrInstructions_ThenResponseHasRecipe() throws Exception {
+		Recipe recipe = recipeService.createRecipe(TestUtil.getRecipe());
+
+		assertEquals(recipe.getId(), search("pesto chicken").getContent().get(0).getId());
+		assertEquals(recipe.getId(), search("green beans").getContent().get(0).getId());
+		assertEquals(recipe.getId(), search("refrigerator").getContent().get(0).getId());
+		assertTrue(search("salmon").getContent().isEmpty());
+	}
+
+	@Test
+	void GivenRecipes_WhenTriedForSearchingWithFilters_ThenResponseHasMatchingRecipes() throws Exception {
+		Recipe vegetarianRecipe = recipeService.createRecipe(getRecipe("Tomato soup", true, 2, "tomato"));
+		recipeService.createRecipe(getRecipe("Tomato chicken", false, 4, "tomato"));
+		Recipe largeRecipe = recipeService.createRecipe(getRecipe("Tomato pasta", true, 10, "tomato"));
+
+		SearchPage<Recipe> vegetarianPage = recipeSearchService.searchRecipes("tomato", true, null, 5, null, null);
+
+		assertEquals(1, vegetarianPage.getContent().size());
+		assertEquals(vegetarianRecipe.getId(), vegetarianPage.getContent().get(0).getId());
+
+		SearchPage<Recipe> largePage = recipeSearchService.searchRecipes(null, null, 6, null, null, null);
+
+		assertEquals(1, largePage.getContent().size());
+		assertEquals(largeRecipe.getId(), largePage.getContent().get(0).getId());
+	}
+
+	@Test
+	void GivenRecipes_WhenTriedForSearchingPageByPage_ThenResponseHasNextPage() throws Exception {
+		recipeService.createRecipe(getRecipe("Tomato soup", true, 2, "tomato"));
+		recipeService.createRecipe(getRecipe("Tomato pasta", true, 2, "tomato"));
+
+		SearchPage<Recipe> firstPage = recipeSearchService.searchRecipes("tomato", null, null, null, 0, 1);
+		SearchPage<Recipe> secondPage = recipeSearchService.searchRecipes("tomato", null, null, null, 1, 1);
+
+		assertEquals(1, firstPage.getContent().size());
+		assertFalse(firstPage.isLast());
+		assertEquals(1, secondPage.getContent().size());
+		assertTrue(secondPage.isLast());
+	}
+
+	@Test
+	void GivenUpdatedAndDeletedRecipes_WhenTriedForSearching_ThenIndexIsUpToDate() throws Exception {
+		Recipe recipe = recipeService.createRecipe(getRecipe("Tomato soup", true, 2, "tomato"));
+		Recipe deletedRecipe = recipeService.createRecipe(getRecipe("Tomato pasta", true, 2, "tomato"));
+
+		recipeService.updateRecipe(recipe.getId(), getRecipe("Lentil soup", true, 2, "lentil"));
+		recipeService.deleteRecipes(Arrays.asList(deletedRecipe.getId()));
+
+		assertTrue(search("tomato").getContent().isEmpty());
+		assertEquals(recipe.getId(), search("lentil").getContent().get(0).getId());
+	}
+
+	@Test
+	void GivenRecipes_WhenTriedForRebuildingIndex_ThenAllRecipesAreIndexed() throws Exception {
+		recipeService.createRecipes(Arrays.asList(getRecipe("Tomato soup", true, 2, "tomato"),
+				getRecipe("Tomato pasta", true, 2, "tomato")));
+
+		assertEquals(2, recipeSearchService.rebuildIndex());
+		assertEquals(2, search("tomato").getContent().size());
+	}
+
+	@Test
+	void GivenInvalidPage_WhenTriedForSearching_ThenResponseIsException() throws Exception {
+		assertThrows(InvalidSearchException.class, () -> {
+			recipeSearchService.searchRecipes("tomato", null, null, null, -1, null);
+		});
+		assertThrows(InvalidSearchException.class, () -> {
+			recipeSearchService.searchRecipes("tomato", null, null, null, 100000, 100);
+		});
+	}
+
+	private SearchPage<Recipe> search(String text) {
+		return recipeSearchService.searchRecipes(text, null, null, null, null, null);
+	}
+
+	private Recipe getRecipe(String name, boolean vegetarian, int servingCapacity, String ingredient) {
+		Recipe recipe = TestUtil.getRecipe();
+		recipe.setName(name);
+		recipe.setVegetarian(vegetarian);
+		recipe.setServingCapacity(servingCapacity);
+		recipe.setIngredients(Arrays.asList(Ingredient.builder().name(ingredient).quantity(new BigDecimal(2)).build()));
+		recipe.setCookingInstructions(String.format("Cook the %s.", ingredient));
+		return recipe;
+	}
+
+}
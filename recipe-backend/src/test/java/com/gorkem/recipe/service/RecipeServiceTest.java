@@ -1,20 +1,59 @@
 package com.gorkem.recipe.service;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
+import javax.persistence.EntityManagerFactory;
 import javax.validation.ConstraintViolationException;
 
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.CacheManager;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.gorkem.recipe.config.CacheConfig;
+import com.gorkem.recipe.exception.BulkLimitExceededException;
+import com.gorkem.recipe.exception.ChangesExpiredException;
+import com.gorkem.recipe.exception.CustomExceptionHandler;
+import com.gorkem.recipe.exception.InvalidCursorException;
+import com.gorkem.recipe.exception.InvalidPatchException;
 import com.gorkem.recipe.exception.NoRecipesFoundException;
 import com.gorkem.recipe.exception.RecipeAlreadyExistsException;
+import com.gorkem.recipe.exception.RecipeModifiedException;
 import com.gorkem.recipe.exception.RecipeNotFoundException;
+import com.gorkem.recipe.model.Ingredient;
 import com.gorkem.recipe.model.Recipe;
+import com.gorkem.recipe.payload.response.BulkItemResponse;
+import com.gorkem.recipe.payload.response.CursorPage;
+import com.gorkem.recipe.payload.response.RecipeChanges;
+import com.gorkem.recipe.payload.response.RecipeSummary;
+import com.gorkem.recipe.repository.RecipeRepository;
+import com.gorkem.recipe.util.RecipeUtil;
 import com.gorkem.recipe.util.TestUtil;
 
 /**
@@ -29,6 +68,27 @@ public class RecipeServiceTest {
 	@Autowired
 	private RecipeService recipeService;
 	
+	@Autowired
+	private ObjectMapper objectMapper;
+	
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+	
+	@Autowired
+	private CacheManager cacheManager;
+	
+	@Autowired
+	private RecipeRepository recipeRepository;
+	
+	@Autowired
+	private CustomExceptionHandler customExceptionHandler;
+	
+	@Autowired
+	private JdbcTemplate jdbcTemplate;
+	
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+	
 	@Test
 	void GivenInvalidData_WhenTriedForCreatingRecipe_ThenResponseIsException() throws Exception {
 		Recipe recipe = TestUtil.getRecipe();
@@ -45,6 +105,18 @@ public class RecipeServiceTest {
 		TestUtil.verifyResults(savedRecipe, recipe);
 	}
 	
+	@Test
+	void GivenValidData_WhenTriedForCreatingRecipe_ThenIngredientsAreInsertedWithTheirRecipeId() throws Exception {
+		Statistics statistics = getStatistics();
+		
+		recipeService.createRecipe(TestUtil.getRecipe());
+		
+		// the name check, one id of each sequence, the recipe insert and one batch of ingredient inserts, without
+		// updating the recipe id of the ingredients afterwards
+		assertEquals(5, statistics.getPrepareStatementCount());
+		assertEquals(5, statistics.getEntityInsertCount());
+	}
+	
 	@Test
 	void GivenValidData_WhenTriedForCreatingRecipeWithSameName_ThenResponseIsException() throws Exception {
 		Recipe recipe = TestUtil.getRecipe();
@@ -83,6 +155,206 @@ public class RecipeServiceTest {
 		TestUtil.verifyResults(recipes.get(0), recipe);
 	}
 	
+	@Test
+	void GivenValidData_WhenTriedForGettingRecipesPageByPage_ThenResponseIsOk() throws Exception {
+		Recipe recipe = TestUtil.getRecipe();
+		recipeService.createRecipe(recipe);
+		Recipe secondRecipe = TestUtil.getRecipe();
+		secondRecipe.setName("Second recipe");
+		recipeService.createRecipe(secondRecipe);
+		
+		CursorPage<Recipe> firstPage = recipeService.getRecipes(null, 1);
+		assertEquals(1, firstPage.getContent().size());
+		TestUtil.verifyResults(firstPage.getContent().get(0), recipe);
+		assertNotNull(firstPage.getNextCursor());
+		
+		CursorPage<Recipe> secondPage = recipeService.getRecipes(firstPage.getNextCursor(), 1);
+		assertEquals(1, secondPage.getContent().size());
+		TestUtil.verifyResults(secondPage.getContent().get(0), secondRecipe);
+		assertNull(secondPage.getNextCursor());
+	}
+	
+	@Test
+	void GivenPageOfRecipes_WhenTriedForGettingRecipes_ThenIngredientsAreNotLoadedPerRecipe() throws Exception {
+		for (int i = 0; i < 5; i++) {
+			Recipe recipe = TestUtil.getRecipe();
+			recipe.setName(String.format("Recipe %d", i));
+			recipeService.createRecipe(recipe);
+		}
+		Statistics statistics = getStatistics();
+		
+		CursorPage<Recipe> page = recipeService.getRecipes(null, 5);
+		
+		assertEquals(5, page.getContent().size());
+		page.getContent().forEach(recipe -> assertEquals(4, recipe.getIngredients().size()));
+		// one statement for the ids of the page and one for the recipes with their ingredients
+		assertEquals(2, statistics.getPrepareStatementCount());
+	}
+	
+	@Test
+	void GivenPageOfRecipes_WhenTriedForGettingRecipeSummaries_ThenOnlyRecipeTableIsRead() throws Exception {
+		for (int i = 0; i < 5; i++) {
+			Recipe recipe = TestUtil.getRecipe();
+			recipe.setName(String.format("Recipe %d", i));
+			recipeService.createRecipe(recipe);
+		}
+		Statistics statistics = getStatistics();
+		
+		CursorPage<RecipeSummary> page = recipeService.getRecipeSummaries(null, 5);
+		
+		assertEquals(5, page.getContent().size());
+		page.getContent().forEach(summary -> assertEquals(4, summary.getIngredientCount()));
+		assertEquals("Recipe 0", page.getContent().get(0).getName());
+		// a single statement on the recipe table, and no recipe or ingredient entity is loaded
+		assertEquals(1, statistics.getPrepareStatementCount());
+		assertEquals(0, statistics.getEntityLoadCount());
+	}
+	
+	@Test
+	void GivenReplacedIngredients_WhenTriedForGettingRecipeSummaries_ThenIngredientCountIsUpdated() throws Exception {
+		Recipe savedRecipe = recipeService.createRecipe(TestUtil.getRecipe());
+		Recipe newRecipe = TestUtil.getRecipe();
+		newRecipe.setIngredients(Arrays.asList(Ingredient.builder().name("cherry tomato").quantity(new BigDecimal(400)).build(),
+				Ingredient.builder().name("olive oil").quantity(new BigDecimal(2)).build()));
+		
+		recipeService.updateRecipe(savedRecipe.getId(), newRecipe);
+		
+		assertEquals(2, recipeService.getRecipeSummaries(null, 5).getContent().get(0).getIngredientCount());
+	}
+	
+	@Test
+	void GivenRecipesCreatedAtDifferentTimes_WhenTriedForGettingRecipesSortedByCreationTime_ThenPagesAreInCreationOrder() throws Exception {
+		List<BulkItemResponse> created = recipeService.createRecipes(getRecipes(3));
+		LocalDateTime now = LocalDateTime.now();
+		setCreationTime(created.get(0).getId(), now.minusDays(1));
+		setCreationTime(created.get(1).getId(), now.minusDays(3));
+		setCreationTime(created.get(2).getId(), now.minusDays(2));
+		RecipeCriteria criteria = RecipeCriteria.of(null, null, RecipeCriteria.SORT_BY_CREATED);
+		
+		CursorPage<Recipe> firstPage = recipeService.getRecipes(null, 2, criteria);
+		assertEquals(2, firstPage.getContent().size());
+		assertEquals(created.get(1).getId(), firstPage.getContent().get(0).getId());
+		assertEquals(created.get(2).getId(), firstPage.getContent().get(1).getId());
+		assertNotNull(firstPage.getNextCursor());
+		
+		CursorPage<Recipe> secondPage = recipeService.getRecipes(firstPage.getNextCursor(), 2, criteria);
+		assertEquals(1, secondPage.getContent().size());
+		assertEquals(created.get(0).getId(), secondPage.getContent().get(0).getId());
+		assertNull(secondPage.getNextCursor());
+	}
+	
+	@Test
+	void GivenRecipesCreatedAtDifferentTimes_WhenTriedForGettingRecipeSummariesCreatedInRange_ThenOthersAreLeftOut() throws Exception {
+		List<BulkItemResponse> created = recipeService.createRecipes(getRecipes(3));
+		LocalDateTime now = LocalDateTime.now();
+		setCreationTime(created.get(0).getId(), now.minusDays(1));
+		setCreationTime(created.get(1).getId(), now.minusDays(3));
+		setCreationTime(created.get(2).getId(), now.minusDays(2));
+		
+		CursorPage<RecipeSummary> page = recipeService.getRecipeSummaries(null, 5,
+				RecipeCriteria.of(now.minusDays(3), now.minusDays(1), null));
+		
+		assertEquals(1, page.getContent().size());
+		assertEquals(created.get(2).getId(), page.getContent().get(0).getId());
+		assertNull(page.getNextCursor());
+	}
+	
+	@Test
+	void GivenIdCursor_WhenTriedForGettingRecipesSortedByCreationTime_ThenResponseIsException() throws Exception {
+		assertThrows(InvalidCursorException.class, () -> {
+			recipeService.getRecipes(RecipeUtil.encodeCursor(1L), 1,
+					RecipeCriteria.of(null, null, RecipeCriteria.SORT_BY_CREATED));
+		});
+	}
+	
+	@Test
+	void GivenExistingRecipe_WhenTriedForGettingRecipe_ThenIngredientsAreJoinFetched() throws Exception {
+		Long id = recipeService.createRecipe(TestUtil.getRecipe()).getId();
+		Statistics statistics = getStatistics();
+		
+		Recipe recipe = recipeService.getRecipe(id);
+		
+		assertEquals(4, recipe.getIngredients().size());
+		assertEquals(1, statistics.getPrepareStatementCount());
+	}
+	
+	@Test
+	void GivenCachedRecipe_WhenTriedForGettingRecipeAgain_ThenResponseIsServedFromCache() throws Exception {
+		Long id = recipeService.createRecipe(TestUtil.getRecipe()).getId();
+		recipeService.getRecipe(id);
+		Statistics statistics = getStatistics();
+		
+		Recipe recipe = recipeService.getRecipe(id);
+		
+		TestUtil.verifyResults(recipe, TestUtil.getRecipe());
+		assertEquals(0, statistics.getPrepareStatementCount());
+		CacheStats cacheStats = getCacheStats(CacheConfig.RECIPES);
+		assertEquals(1, cacheStats.hitCount());
+		assertEquals(1, cacheStats.missCount());
+	}
+	
+	@Test
+	void GivenCachedRecipe_WhenTriedForUpdatingRecipe_ThenCachedRecipeIsInvalidated() throws Exception {
+		Recipe savedRecipe = recipeService.createRecipe(TestUtil.getRecipe());
+		recipeService.getRecipe(savedRecipe.getId());
+		recipeService.getRecipes(null, null);
+		
+		savedRecipe.setServingCapacity(8);
+		recipeService.updateRecipe(savedRecipe.getId(), savedRecipe);
+		
+		assertEquals(8, recipeService.getRecipe(savedRecipe.getId()).getServingCapacity());
+		assertEquals(8, recipeService.getRecipes(null, null).getContent().get(0).getServingCapacity());
+	}
+	
+	@Test
+	void GivenReadBeforeUpdateCommits_WhenTriedForGettingRecipeAfterCommit_ThenOldRecipeIsNotCached() throws Exception {
+		Recipe savedRecipe = recipeService.createRecipe(TestUtil.getRecipe());
+		savedRecipe.setServingCapacity(8);
+		
+		new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+			recipeService.updateRecipe(savedRecipe.getId(), savedRecipe);
+			// a read on its own connection sees the committed row and caches it before the update commits
+			Recipe concurrentRecipe = CompletableFuture.supplyAsync(() -> recipeService.getRecipe(savedRecipe.getId()))
+					.join();
+			assertEquals(4, concurrentRecipe.getServingCapacity());
+		});
+		
+		assertEquals(8, recipeService.getRecipe(savedRecipe.getId()).getServingCapacity());
+	}
+	
+	@Test
+	void GivenCachedRecipe_WhenTriedForDeletingRecipe_ThenCachedRecipeIsInvalidated() throws Exception {
+		Long id = recipeService.createRecipe(TestUtil.getRecipe()).getId();
+		recipeService.getRecipe(id);
+		
+		recipeService.deleteRecipe(id);
+		
+		assertThrows(RecipeNotFoundException.class, () -> {
+			recipeService.getRecipe(id);
+		});
+	}
+	
+	@Test
+	void GivenInvalidCursor_WhenTriedForGettingRecipes_ThenResponseIsException() throws Exception {
+		assertThrows(InvalidCursorException.class, () -> {
+			recipeService.getRecipes("not-a-cursor", 1);
+		});
+	}
+	
+	@Test
+	void GivenValidData_WhenTriedForExportingRecipes_ThenResponseIsOk() throws Exception {
+		Recipe recipe = TestUtil.getRecipe();
+		recipeService.createRecipe(recipe);
+		ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+		
+		long count = recipeService.exportRecipes(outputStream);
+		
+		assertEquals(1, count);
+		String[] lines = outputStream.toString(StandardCharsets.UTF_8.name()).split("\n");
+		assertEquals(1, lines.length);
+		TestUtil.verifyResults(objectMapper.readValue(lines[0], Recipe.class), recipe);
+	}
+	
 	@Test
 	void GivenValidData_WhenTriedForUpdatingNonExistingRecipe_ThenResponseIsException() throws Exception {
 		Recipe recipe = TestUtil.getRecipe();
@@ -101,6 +373,118 @@ public class RecipeServiceTest {
 		TestUtil.verifyResults(updatedRecipe, savedRecipe);
 	}
 	
+	@Test
+	void GivenOneChangedIngredient_WhenTriedForUpdatingRecipe_ThenOnlyThatIngredientIsUpdated() throws Exception {
+		Recipe savedRecipe = recipeService.createRecipe(TestUtil.getRecipe());
+		Ingredient changedIngredient = savedRecipe.getIngredients().get(1);
+		changedIngredient.setQuantity(new BigDecimal(500));
+		Statistics statistics = getStatistics();
+		
+		Recipe updatedRecipe = recipeService.updateRecipe(savedRecipe.getId(), savedRecipe);
+		
+		// the recipe row for lastModified and version, and the changed ingredient row
+		assertEquals(2, statistics.getEntityUpdateCount());
+		assertEquals(0, statistics.getEntityInsertCount());
+		assertEquals(0, statistics.getEntityDeleteCount());
+		Ingredient updatedIngredient = updatedRecipe.getIngredients().stream()
+				.filter(ingredient -> ingredient.getId().equals(changedIngredient.getId())).findFirst().get();
+		assertEquals(0, new BigDecimal(500).compareTo(updatedIngredient.getQuantity()));
+		assertEquals(savedRecipe.getVersion() + 1, updatedRecipe.getVersion());
+	}
+	
+	@Test
+	void GivenReplacedIngredients_WhenTriedForUpdatingRecipe_ThenOldIngredientsAreDeleted() throws Exception {
+		Recipe savedRecipe = recipeService.createRecipe(TestUtil.getRecipe());
+		Recipe newRecipe = TestUtil.getRecipe();
+		newRecipe.setIngredients(Arrays.asList(Ingredient.builder().name("cherry tomato").quantity(new BigDecimal(400)).build(),
+				Ingredient.builder().name("olive oil").quantity(new BigDecimal(2)).build()));
+		Statistics statistics = getStatistics();
+		
+		Recipe updatedRecipe = recipeService.updateRecipe(savedRecipe.getId(), newRecipe);
+		
+		assertEquals(2, updatedRecipe.getIngredients().size());
+		// cherry tomato is matched by name and kept, olive oil is inserted and the other three are deleted
+		assertEquals(1, statistics.getEntityInsertCount());
+		assertEquals(3, statistics.getEntityDeleteCount());
+		assertEquals(2, entityManagerFactory.createEntityManager()
+				.createQuery("select count(i) from Ingredient i", Long.class).getSingleResult());
+	}
+	
+	@Test
+	void GivenStaleVersion_WhenTriedForUpdatingRecipe_ThenResponseIsException() throws Exception {
+		Recipe savedRecipe = recipeService.createRecipe(TestUtil.getRecipe());
+		Recipe firstEdit = TestUtil.getRecipe();
+		firstEdit.setVersion(savedRecipe.getVersion());
+		firstEdit.setServingCapacity(8);
+		recipeService.updateRecipe(savedRecipe.getId(), firstEdit);
+		
+		Recipe secondEdit = TestUtil.getRecipe();
+		secondEdit.setVersion(savedRecipe.getVersion());
+		secondEdit.setServingCapacity(6);
+		
+		assertThrows(RecipeModifiedException.class, () -> {
+			recipeService.updateRecipe(savedRecipe.getId(), secondEdit);
+		});
+		assertEquals(8, recipeService.getRecipe(savedRecipe.getId()).getServingCapacity());
+	}
+	
+	@Test
+	void GivenMergePatch_WhenTriedForPatchingRecipe_ThenOnlyPatchedFieldsAreUpdated() throws Exception {
+		Recipe savedRecipe = recipeService.createRecipe(TestUtil.getRecipe());
+		Statistics statistics = getStatistics();
+		
+		Recipe patchedRecipe = recipeService.patchRecipe(savedRecipe.getId(),
+				objectMapper.readTree("{\"vegetarian\":true,\"servingCapacity\":6}"), null);
+		
+		// only the recipe row is written, the ingredients are left alone
+		assertEquals(1, statistics.getEntityUpdateCount());
+		assertEquals(0, statistics.getEntityInsertCount());
+		assertEquals(0, statistics.getEntityDeleteCount());
+		assertTrue(patchedRecipe.getVegetarian());
+		assertEquals(6, patchedRecipe.getServingCapacity());
+		assertEquals(savedRecipe.getName(), patchedRecipe.getName());
+		assertEquals(savedRecipe.getCookingInstructions(), patchedRecipe.getCookingInstructions());
+		assertEquals(savedRecipe.getIngredients().size(), patchedRecipe.getIngredients().size());
+		assertEquals(savedRecipe.getVersion() + 1, patchedRecipe.getVersion());
+	}
+	
+	@Test
+	void GivenInvalidMergePatch_WhenTriedForPatchingRecipe_ThenResponseIsException() throws Exception {
+		Recipe savedRecipe = recipeService.createRecipe(TestUtil.getRecipe());
+		
+		assertThrows(InvalidPatchException.class, () -> {
+			recipeService.patchRecipe(savedRecipe.getId(), objectMapper.readTree("{\"name\":null}"), null);
+		});
+		assertThrows(InvalidPatchException.class, () -> {
+			recipeService.patchRecipe(savedRecipe.getId(), objectMapper.readTree("[]"), null);
+		});
+		assertThrows(RecipeModifiedException.class, () -> {
+			recipeService.patchRecipe(savedRecipe.getId(), objectMapper.readTree("{\"version\":5,\"vegetarian\":true}"), null);
+		});
+		assertEquals(savedRecipe.getName(), recipeService.getRecipe(savedRecipe.getId()).getName());
+	}
+	
+	@Test
+	void GivenExistingName_WhenTriedForSavingRecipeWithoutCheck_ThenUniqueIndexRejectsIt() throws Exception {
+		recipeService.createRecipe(TestUtil.getRecipe());
+		DataIntegrityViolationException exception = assertThrows(DataIntegrityViolationException.class, () -> {
+			recipeRepository.saveAndFlush(TestUtil.getRecipe());
+		});
+		
+		assertEquals(HttpStatus.CONFLICT, customExceptionHandler.handleDataIntegrityViolationException(exception)
+				.getStatusCode());
+	}
+	
+	@Test
+	void GivenMissingRecipe_WhenTriedForSavingIngredientOfIt_ThenViolationIsBadRequest() throws Exception {
+		DataIntegrityViolationException exception = assertThrows(DataIntegrityViolationException.class, () -> {
+			jdbcTemplate.update("insert into ingredient (id, name, quantity, recipe_id) values (-1, 'salt', 1, -1)");
+		});
+		
+		assertEquals(HttpStatus.BAD_REQUEST, customExceptionHandler.handleDataIntegrityViolationException(exception)
+				.getStatusCode());
+	}
+	
 	@Test
 	void GivenValidData_WhenTriedForDeletingNonExistingRecipe_ThenResponseIsException() throws Exception {
 		Recipe recipe = TestUtil.getRecipe();
@@ -116,5 +500,193 @@ public class RecipeServiceTest {
 		Recipe savedRecipe = recipeService.createRecipe(recipe);
 		recipeService.deleteRecipe(savedRecipe.getId());
 	}
+	
+	@Test
+	void GivenValidData_WhenTriedForCreatingRecipesInBulk_ThenResponseIsOkForEachRecipe() throws Exception {
+		List<Recipe> recipes = getRecipes(100);
+		
+		List<BulkItemResponse> responses = recipeService.createRecipes(recipes);
+		
+		assertEquals(100, responses.size());
+		for (int i = 0; i < responses.size(); i++) {
+			assertEquals(i, responses.get(i).getIndex());
+			assertEquals(HttpStatus.CREATED.value(), responses.get(i).getStatus());
+			TestUtil.verifyResults(recipeService.getRecipe(responses.get(i).getId()), recipes.get(i));
+		}
+	}
+	
+	@Test
+	void GivenRecipesInBulk_WhenTriedForCreatingRecipes_ThenInsertsAreBatched() throws Exception {
+		List<Recipe> recipes = getRecipes(100);
+		Statistics statistics = getStatistics();
+		
+		recipeService.createRecipes(recipes);
+		
+		// 100 recipes and 400 ingredients are inserted in batches of 50 instead of 500 single statements
+		assertTrue(statistics.getPrepareStatementCount() < 50);
+		assertEquals(500, statistics.getEntityInsertCount());
+	}
+	
+	@Test
+	void GivenInvalidAndDuplicateData_WhenTriedForCreatingRecipesInBulk_ThenResponseHasStatusForEachRecipe() throws Exception {
+		recipeService.createRecipe(TestUtil.getRecipe());
+		Recipe invalidRecipe = TestUtil.getRecipe();
+		invalidRecipe.setName(null);
+		Recipe newRecipe = TestUtil.getRecipe();
+		newRecipe.setName("New recipe");
+		Recipe duplicateRecipe = TestUtil.getRecipe();
+		duplicateRecipe.setName("New recipe");
+		
+		List<BulkItemResponse> responses = recipeService.createRecipes(
+				Arrays.asList(invalidRecipe, TestUtil.getRecipe(), newRecipe, duplicateRecipe));
+		
+		assertEquals(HttpStatus.BAD_REQUEST.value(), responses.get(0).getStatus());
+		assertEquals(HttpStatus.CONFLICT.value(), responses.get(1).getStatus());
+		assertEquals(HttpStatus.CREATED.value(), responses.get(2).getStatus());
+		assertNotNull(responses.get(2).getId());
+		assertEquals(HttpStatus.CONFLICT.value(), responses.get(3).getStatus());
+		assertEquals(2, recipeService.getAllRecipes().size());
+	}
+	
+	@Test
+	void GivenTooManyRecipes_WhenTriedForCreatingRecipesInBulk_ThenResponseIsException() throws Exception {
+		List<Recipe> recipes = getRecipes(1001);
+		assertThrows(BulkLimitExceededException.class, () -> {
+			recipeService.createRecipes(recipes);
+		});
+	}
+	
+	@Test
+	void GivenExistingRecipes_WhenTriedForUpdatingRecipesInBulk_ThenResponseHasStatusForEachRecipe() throws Exception {
+		List<BulkItemResponse> created = recipeService.createRecipes(getRecipes(2));
+		Recipe firstRecipe = recipeService.getRecipe(created.get(0).getId());
+		firstRecipe.setServingCapacity(8);
+		Recipe conflictingRecipe = recipeService.getRecipe(created.get(1).getId());
+		conflictingRecipe.setName(firstRecipe.getName());
+		Recipe missingRecipe = TestUtil.getRecipe();
+		missingRecipe.setId(created.get(1).getId() + 1);
+		
+		List<BulkItemResponse> responses = recipeService.updateRecipes(
+				Arrays.asList(firstRecipe, conflictingRecipe, missingRecipe));
+		
+		assertEquals(HttpStatus.OK.value(), responses.get(0).getStatus());
+		assertEquals(HttpStatus.CONFLICT.value(), responses.get(1).getStatus());
+		assertEquals(HttpStatus.NOT_FOUND.value(), responses.get(2).getStatus());
+		TestUtil.verifyResults(recipeService.getRecipe(firstRecipe.getId()), firstRecipe);
+	}
+	
+	@Test
+	void GivenExistingRecipes_WhenTriedForDeletingRecipesInBulk_ThenResponseHasStatusForEachRecipe() throws Exception {
+		List<BulkItemResponse> created = recipeService.createRecipes(getRecipes(2));
+		Long firstId = created.get(0).getId();
+		Long secondId = created.get(1).getId();
+		recipeService.getRecipe(firstId);
+		
+		List<BulkItemResponse> responses = recipeService.deleteRecipes(Arrays.asList(firstId, firstId, secondId + 1));
+		
+		assertEquals(HttpStatus.NO_CONTENT.value(), responses.get(0).getStatus());
+		assertEquals(HttpStatus.NOT_FOUND.value(), responses.get(1).getStatus());
+		assertEquals(HttpStatus.NOT_FOUND.value(), responses.get(2).getStatus());
+		assertThrows(RecipeNotFoundException.class, () -> {
+			recipeService.getRecipe(firstId);
+		});
+		TestUtil.verifyResults(recipeService.getRecipe(secondId), getRecipes(2).get(1));
+	}
+	
+	@Test
+	void GivenNoRecipes_WhenTriedForDeletingRecipesInBulk_ThenResponseIsEmpty() throws Exception {
+		assertTrue(recipeService.deleteRecipes(Collections.emptyList()).isEmpty());
+	}
+	
+	@Test
+	void GivenChangesToken_WhenTriedForGettingChanges_ThenOnlyModifiedAndDeletedRecipesAreReturned() throws Exception {
+		List<BulkItemResponse> created = recipeService.createRecipes(getRecipes(3));
+		Long firstId = created.get(0).getId();
+		Long secondId = created.get(1).getId();
+		
+		RecipeChanges changes = recipeService.getChanges(null, null);
+		
+		assertEquals(3, changes.getRecipes().size());
+		assertTrue(changes.getDeletedIds().isEmpty());
+		assertFalse(changes.isMore());
+		
+		Recipe recipe = recipeService.getRecipe(firstId);
+		recipe.setServingCapacity(8);
+		recipeService.updateRecipe(firstId, recipe);
+		recipeService.deleteRecipe(secondId);
+		
+		RecipeChanges nextChanges = recipeService.getChanges(changes.getNextToken(), null);
+		
+		assertEquals(1, nextChanges.getRecipes().size());
+		assertEquals(firstId, nextChanges.getRecipes().get(0).getId());
+		assertEquals(8, nextChanges.getRecipes().get(0).getServingCapacity());
+		assertEquals(Collections.singletonList(secondId), nextChanges.getDeletedIds());
+		
+		RecipeChanges noChanges = recipeService.getChanges(nextChanges.getNextToken(), null);
+		
+		assertTrue(noChanges.getRecipes().isEmpty());
+		assertTrue(noChanges.getDeletedIds().isEmpty());
+	}
+	
+	@Test
+	void GivenRecipesModifiedTogether_WhenTriedForGettingChangesPageByPage_ThenEveryRecipeIsReturnedOnce() throws Exception {
+		recipeService.createRecipes(getRecipes(3));
+		
+		List<Long> ids = new ArrayList<>();
+		RecipeChanges changes = recipeService.getChanges(null, 2);
+		changes.getRecipes().forEach(recipe -> ids.add(recipe.getId()));
+		assertTrue(changes.isMore());
+		changes = recipeService.getChanges(changes.getNextToken(), 2);
+		changes.getRecipes().forEach(recipe -> ids.add(recipe.getId()));
+		
+		assertFalse(changes.isMore());
+		assertEquals(3, ids.size());
+		assertEquals(3, ids.stream().distinct().count());
+	}
+	
+	@Test
+	void GivenTokenOlderThanRetention_WhenTriedForGettingChanges_ThenResponseIsException() throws Exception {
+		LocalDateTime longAgo = LocalDateTime.now().minusYears(1);
+		String token = new ChangesToken(longAgo, 0, longAgo, 0).encode();
+		assertThrows(ChangesExpiredException.class, () -> {
+			recipeService.getChanges(token, null);
+		});
+	}
+	
+	@Test
+	void GivenInvalidToken_WhenTriedForGettingChanges_ThenResponseIsException() throws Exception {
+		assertThrows(InvalidCursorException.class, () -> {
+			recipeService.getChanges("invalid", null);
+		});
+	}
+	
+	private List<Recipe> getRecipes(int count) {
+		List<Recipe> recipes = new ArrayList<>(count);
+		for (int i = 0; i < count; i++) {
+			Recipe recipe = TestUtil.getRecipe();
+			recipe.setName(String.format("Recipe %d", i));
+			recipes.add(recipe);
+		}
+		return recipes;
+	}
+	
+	private void setCreationTime(Long id, LocalDateTime creationTime) {
+		Recipe recipe = recipeRepository.findById(id).get();
+		recipe.setCreationTime(creationTime);
+		recipeRepository.saveAndFlush(recipe);
+	}
+	
+	@SuppressWarnings("unchecked")
+	private CacheStats getCacheStats(String cacheName) {
+		Cache<Object, Object> cache = (Cache<Object, Object>) cacheManager.getCache(cacheName).getNativeCache();
+		return cache.stats();
+	}
+	
+	private Statistics getStatistics() {
+		Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		statistics.setStatisticsEnabled(true);
+		statistics.clear();
+		return statistics;
+	}
 
 }
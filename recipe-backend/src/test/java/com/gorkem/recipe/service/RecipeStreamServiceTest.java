@@ -0,0 +1,81 @@
+package com.gorkem.recipe.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.gorkem.recipe.event.RecipeChangedEvent;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Recipe stream service test class.
+ *
+ * @author gorkemdemiray
+ */
+public class RecipeStreamServiceTest {
+
+	private final CountDownLatch released = new CountDownLatch(1);
+	private MeterRegistry meterRegistry;
+	private RecipeStreamService recipeStreamService;
+
+	@BeforeEach
+	public void setUp() {
+		meterRegistry = new SimpleMeterRegistry();
+		recipeStreamService = new RecipeStreamService(new ObjectMapper(), meterRegistry, 256, 1024, 1, 50);
+	}
+
+	@AfterEach
+	public void tearDown() {
+		released.countDown();
+		recipeStreamService.destroy();
+	}
+
+	@Test
+	void GivenStalledSubscriber_WhenTriedForCheckingWrites_ThenOtherSubscriberGetsEvents() throws Exception {
+		final CountDownLatch stalled = new CountDownLatch(1);
+		recipeStreamService.subscribe(new SseEmitter() {
+			@Override
+			public void send(SseEventBuilder builder) {
+				stalled.countDown();
+				try {
+					released.await();
+				} catch (InterruptedException ex) {
+					Thread.currentThread().interrupt();
+				}
+			}
+		}, null);
+		recipeStreamService.onRecipeChanged(RecipeChangedEvent.deleted(1L));
+		assertTrue(stalled.await(5, TimeUnit.SECONDS));
+		
+		final BlockingQueue<SseEmitter.SseEventBuilder> sent = new LinkedBlockingQueue<>();
+		recipeStreamService.subscribe(new SseEmitter() {
+			@Override
+			public void send(SseEventBuilder builder) {
+				sent.add(builder);
+			}
+		}, null);
+		recipeStreamService.onRecipeChanged(RecipeChangedEvent.deleted(2L));
+		
+		assertNull(sent.poll(100, TimeUnit.MILLISECONDS));
+		
+		recipeStreamService.checkWrites();
+		
+		assertNotNull(sent.poll(5, TimeUnit.SECONDS));
+		assertEquals(1, meterRegistry.counter(RecipeStreamService.EVICTIONS).count());
+		assertEquals(1, meterRegistry.get(RecipeStreamService.SUBSCRIBERS).gauge().value());
+	}
+}
@@ -0,0 +1,7 @@
+import { RecipePage } from './recipe-page';
+
+describe('RecipePage', () => {
+  it('should create an instance', () => {
+    expect(new RecipePage()).toBeTruthy();
+  });
+});
@@ -0,0 +1,7 @@
+import { Recipe } from "./recipe";
+
+export class RecipePage {
+    content?: Recipe[];
+    nextCursor?: string;
+    next?: string;
+}
@@ -1,7 +1,9 @@
 import { Injectable } from '@angular/core';
 import { HttpClient, HttpHeaders } from '@angular/common/http';
 import { Observable } from 'rxjs';
+import { map } from 'rxjs/operators';
 import { Recipe } from '../models/recipe';
+import { RecipePage } from '../models/recipe-page';
 
 const baseUrl = 'http://localhost:8080/api/recipes';
 
@@ -26,7 +28,7 @@ export class RecipeService {
   }
 
   getAllRecipes(): Observable<Recipe[]> {
-    return this.http.get<Recipe[]>(baseUrl);
+    return this.http.get<RecipePage>(baseUrl).pipe(map(page => page.content || []));
   }
 
   updateRecipe(id:number, recipe: Recipe): Observable<Recipe> {